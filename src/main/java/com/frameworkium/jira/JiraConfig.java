@@ -1,29 +1,79 @@
 package com.frameworkium.jira;
 
 import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.auth.JiraSession;
+import com.frameworkium.jira.concurrent.EndpointPermits;
+import com.frameworkium.jira.events.JiraEvents;
+import com.frameworkium.jira.properties.JiraProperty;
+import com.frameworkium.jira.sinks.ReportingBudget;
+import com.frameworkium.jira.transport.Cassette;
+import com.frameworkium.jira.transport.JiraTransport;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.specification.RequestSpecification;
 
 import static io.restassured.RestAssured.given;
+import static io.restassured.config.DecoderConfig.ContentDecoder.DEFLATE;
+import static io.restassured.config.DecoderConfig.ContentDecoder.GZIP;
+import static io.restassured.config.DecoderConfig.decoderConfig;
 
 public class JiraConfig {
 
     public static final String JIRA_REST_PATH = "/rest/api/latest/";
     public static final String REST_ZAPI_PATH = "/rest/zapi/latest/";
 
+    /**
+     * Sends {@code Accept-Encoding: gzip,deflate} and transparently decodes
+     * compressed responses, the large search and field responses compress well.
+     */
+    private static final RestAssuredConfig REST_ASSURED_CONFIG = RestAssuredConfig.config()
+            .decoderConfig(decoderConfig().contentDecoders(GZIP, DEFLATE));
+
+    /** Requests are never given less time than this, even when the reporting budget is nearly used up. */
+    private static final long MIN_REQUEST_TIMEOUT_MILLIS = 1000;
+
     private JiraConfig() {
         // hide default constructor for this util class
     }
 
     /**
-     * Basic request to send to JIRA and authenticate successfully.
+     * Basic request to send to JIRA and authenticate successfully,
+     * with basic auth or a session, see {@link JiraSession}.
      */
     public static RequestSpecification getJIRARequestSpec() {
-        return given()
+        RequestSpecification spec = given()
+                .config(getRestAssuredConfig())
                 .baseUri(Property.JIRA_URL.getValue())
-                .relaxedHTTPSValidation()
-                .auth().preemptive().basic(
-                        Property.JIRA_USERNAME.getValue(),
-                        Property.JIRA_PASSWORD.getValue());
+                .relaxedHTTPSValidation();
+        JiraEvents.requestFilter().ifPresent(spec::filter);
+        // a replayed request is answered before it needs authenticating or sending
+        Cassette.filter().ifPresent(spec::filter);
+        if (JiraSession.isEnabled()) {
+            spec.filter(JiraSession.filter());
+        } else {
+            spec.auth().preemptive().basic(
+                    Property.JIRA_USERNAME.getValue(),
+                    Property.JIRA_PASSWORD.getValue());
+        }
+        EndpointPermits.filter().ifPresent(spec::filter);
+        JiraTransport.filter().ifPresent(spec::filter);
+        return spec;
+    }
+
+    /**
+     * Gives each request a deadline of the request timeout or, if it is sooner,
+     * the end of the reporting budget.
+     */
+    public static RestAssuredConfig getRestAssuredConfig() {
+        if (!JiraProperty.REQUEST_TIMEOUT_MILLIS.isSpecified() && !ReportingBudget.isLimited()) {
+            return REST_ASSURED_CONFIG;
+        }
+        long timeoutMillis = Math.max(MIN_REQUEST_TIMEOUT_MILLIS, Math.min(
+                JiraProperty.REQUEST_TIMEOUT_MILLIS.getLongValue(Long.MAX_VALUE),
+                ReportingBudget.remainingMillis()));
+        int timeout = (int) Math.min(Integer.MAX_VALUE, timeoutMillis);
+        return REST_ASSURED_CONFIG.httpClient(REST_ASSURED_CONFIG.getHttpClientConfig()
+                .setParam("http.connection.timeout", timeout)
+                .setParam("http.socket.timeout", timeout));
     }
 
     /**
@@ -0,0 +1,179 @@
+package com.frameworkium.jira.api;
+
+import com.frameworkium.jira.concurrent.JiraExecutors;
+import com.frameworkium.jira.properties.JiraProperty;
+import com.frameworkium.jira.sinks.ReportingBudget;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Prepares files for upload as JIRA or ZAPI attachments.
+ *
+ * <p>Files are never read into memory: multipart file parts are streamed from
+ * disk by the HTTP client and compression streams to a temporary file.
+ *
+ * <p>Uploads are timed against the {@link ReportingBudget} and dropped, with a
+ * null result, once it is used up.
+ */
+public final class Attachments {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final List<String> TEXT_EXTENSIONS = Arrays.asList(
+            ".txt", ".log", ".har", ".json", ".xml", ".html", ".csv");
+
+    /** Files are sent together in one multipart request up to these limits. */
+    private static final int MAX_FILES_PER_REQUEST = 10;
+    private static final long MAX_BYTES_PER_REQUEST = 100L * 1024 * 1024;
+
+    private Attachments() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * Uploads the attachment, gzipped first if it is a text file
+     * and {@link JiraProperty#COMPRESS_ATTACHMENTS} is true.
+     *
+     * @param attachment the file to upload
+     * @param upload     sends the given file
+     * @return the result of the upload
+     */
+    public static <T> T upload(File attachment, Function<File, T> upload) {
+        return uploadTogether(
+                Arrays.asList(attachment),
+                files -> upload.apply(files.get(0)));
+    }
+
+    /**
+     * Uploads the attachments in batches of several files, with up to
+     * {@link JiraProperty#UPLOAD_CONCURRENCY} batches in flight at once.
+     *
+     * @param attachments the files to upload
+     * @param upload      sends the given files in one request
+     * @return the result of each batch's upload
+     */
+    public static <T> List<T> uploadInBatches(List<File> attachments, Function<List<File>, T> upload) {
+        return inParallel(batches(attachments), batch -> uploadTogether(batch, upload));
+    }
+
+    /**
+     * Uploads each attachment separately, with up to
+     * {@link JiraProperty#UPLOAD_CONCURRENCY} uploads in flight at once.
+     *
+     * @return the result of each file's upload, in the same order as the files
+     */
+    public static <T> List<T> uploadEach(List<File> attachments, Function<File, T> upload) {
+        return inParallel(attachments, attachment -> upload(attachment, upload));
+    }
+
+    private static <T> T uploadTogether(List<File> attachments, Function<List<File>, T> upload) {
+        if (ReportingBudget.drop(false)) {
+            logger.warn("Not uploading {}, the reporting budget is used up", attachments);
+            return null;
+        }
+        long startedAt = ReportingBudget.begin();
+        try {
+            return compressAndUpload(attachments, upload);
+        } finally {
+            ReportingBudget.end(startedAt);
+        }
+    }
+
+    private static <T> T compressAndUpload(List<File> attachments, Function<List<File>, T> upload) {
+        List<Path> compressed = new ArrayList<>();
+        List<File> toUpload = new ArrayList<>();
+        for (File attachment : attachments) {
+            if (JiraProperty.COMPRESS_ATTACHMENTS.getBoolValue() && isText(attachment)) {
+                try {
+                    Path gzipped = gzip(attachment);
+                    compressed.add(gzipped);
+                    toUpload.add(gzipped.toFile());
+                    continue;
+                } catch (IOException e) {
+                    logger.warn("Unable to compress {}, uploading it uncompressed", attachment, e);
+                }
+            }
+            toUpload.add(attachment);
+        }
+
+        try {
+            return upload.apply(toUpload);
+        } finally {
+            compressed.forEach(gzipped -> {
+                gzipped.toFile().delete();
+                gzipped.getParent().toFile().delete();
+            });
+        }
+    }
+
+    private static <I, T> List<T> inParallel(List<I> inputs, Function<I, T> action) {
+        if (inputs.size() == 1) {
+            return Arrays.asList(action.apply(inputs.get(0)));
+        }
+        List<CompletableFuture<T>> futures = inputs.stream()
+                .map(input -> CompletableFuture.supplyAsync(() -> action.apply(input), JiraExecutors.uploads()))
+                .collect(toList());
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static List<List<File>> batches(List<File> attachments) {
+        List<List<File>> batches = new ArrayList<>();
+        List<File> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (File attachment : attachments) {
+            long bytes = attachment.length();
+            if (!batch.isEmpty()
+                    && (batch.size() == MAX_FILES_PER_REQUEST || batchBytes + bytes > MAX_BYTES_PER_REQUEST)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(attachment);
+            batchBytes += bytes;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static boolean isText(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return TEXT_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    /** Keeps the original file name, plus .gz, so the attachment is recognisable in JIRA. */
+    private static Path gzip(File file) throws IOException {
+        Path compressed = Files.createTempDirectory("jira-attachment")
+                .resolve(file.getName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(file.toPath(), out);
+        }
+        return compressed;
+    }
+}
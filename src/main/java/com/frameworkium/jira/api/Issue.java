@@ -1,6 +1,7 @@
 package com.frameworkium.jira.api;
 
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 import com.frameworkium.jira.JiraConfig;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,6 +10,8 @@ import org.json.JSONObject;
 
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 
 public class Issue {
 
@@ -57,10 +60,28 @@ public class Issue {
     public Response addAttachment(File attachment) {
         String attachmentPath = String.format("issue/%s/attachments", issueKey);
 
-        return JiraConfig.getJIRARequestSpec()
+        return Attachments.upload(attachment, file -> JiraConfig.getJIRARequestSpec()
                 .header("X-Atlassian-Token", "nocheck")
-                .multiPart(attachment).and()
+                .multiPart(file).and()
                 .when()
-                .post(JiraConfig.JIRA_REST_PATH + attachmentPath);
+                .post(JiraConfig.JIRA_REST_PATH + attachmentPath));
+    }
+
+    /**
+     * Adds the file attachments to the JIRA issue, sending several files per request.
+     *
+     * @return the response of each request
+     */
+    public List<Response> addAttachments(File... attachments) {
+        String attachmentPath = String.format("issue/%s/attachments", issueKey);
+
+        return Attachments.uploadInBatches(Arrays.asList(attachments), files -> {
+            RequestSpecification request = JiraConfig.getJIRARequestSpec()
+                    .header("X-Atlassian-Token", "nocheck");
+            files.forEach(file -> request.multiPart("file", file));
+            return request
+                    .when()
+                    .post(JiraConfig.JIRA_REST_PATH + attachmentPath);
+        });
     }
 }
@@ -1,11 +1,20 @@
 package com.frameworkium.jira.api;
 
+import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import com.frameworkium.jira.JiraConfig;
+import com.frameworkium.jira.cache.MetadataCache;
+import com.frameworkium.jira.concurrent.SingleFlight;
+import com.frameworkium.jira.properties.JiraProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.*;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import static com.frameworkium.jira.JiraConfig.JIRA_REST_PATH;
 
 public class JiraTest {
@@ -14,6 +23,11 @@ public class JiraTest {
 
     private static final String ISSUE_PATH = "issue/";
 
+    private static final SingleFlight<String, Map<String, String>> FIELD_IDS =
+            new SingleFlight<>(JiraProperty.READ_CACHE_TTL_MILLIS.getLongValue(0));
+    private static final SingleFlight<String, Map<String, Integer>> TRANSITION_IDS =
+            new SingleFlight<>(JiraProperty.READ_CACHE_TTL_MILLIS.getLongValue(0));
+
     private JiraTest() {}
 
     //todo this is flaky, depending on the field you may need a different json object to be parsed in or you get 400 bad request
@@ -81,11 +95,22 @@ public class JiraTest {
      */
     private static String getFieldId(String fieldName) {
 
-        return JiraConfig.getJIRARequestSpec()
-                .when()
-                .get(JIRA_REST_PATH + "field")
-                .thenReturn().jsonPath()
-                .getString(String.format("find {it.name == '%s'}.id", fieldName));
+        Optional<MetadataCache> cache = MetadataCache.ifEnabled();
+        Optional<String> cachedId = cache.flatMap(c -> c.getFieldId(fieldName));
+        if (cachedId.isPresent()) {
+            return cachedId.get();
+        }
+
+        // concurrent callers share one request for the field list
+        Map<String, String> fieldIds = FIELD_IDS.get("field", () -> {
+            JsonPath fields = JiraConfig.getJIRARequestSpec()
+                    .when()
+                    .get(JIRA_REST_PATH + "field")
+                    .thenReturn().jsonPath();
+            return zip(fields.getList("name", String.class), fields.getList("id", String.class));
+        });
+        cache.ifPresent(c -> c.putFieldIds(fieldIds));
+        return fieldIds.get(fieldName);
     }
 
 
@@ -111,6 +136,28 @@ public class JiraTest {
         return response;
     }
 
+    /**
+     * Create and send a PUT request to replace the body of an existing comment in JIRA.
+     */
+    public static Response updateComment(String issueKey, String commentId, String commentBody) {
+
+        Response response = null;
+        JSONObject obj = new JSONObject();
+
+        try {
+            obj.put("body", commentBody);
+            response = JiraConfig.getJIRARequestSpec()
+                    .contentType("application/json")
+                    .body(obj.toString())
+                    .when()
+                    .put(JIRA_REST_PATH + ISSUE_PATH + issueKey + "/comment/" + commentId);
+        } catch (JSONException e) {
+            logger.error("Can't create JSON Object for comment update", e);
+        }
+
+        return response;
+    }
+
     /**
      * Create and post a JSON request for a transition change in JIRA.
      */
@@ -138,6 +185,9 @@ public class JiraTest {
                     .post(JIRA_REST_PATH + ISSUE_PATH + issueKey + "/transitions");
         } catch (JSONException e) {
             logger.error("Can't create JSON Object for transition change", e);
+        } finally {
+            // the issue's new status has different transitions
+            TRANSITION_IDS.invalidate(issueKey);
         }
 
         return response;
@@ -145,11 +195,38 @@ public class JiraTest {
 
     private static int getTransitionId(String issueKey, String transitionName) {
 
-        return JiraConfig.getJIRARequestSpec()
-                .get(JIRA_REST_PATH + ISSUE_PATH + issueKey + "?expand=transitions.fields")
-                .thenReturn().jsonPath()
-                .getInt(String.format(
-                        "transitions.find {it -> it.name == '%s'}.id", transitionName));
+        // not kept in the metadata cache as the available transitions depend on the issue's status
+        Integer transitionId = loadTransitionIds(issueKey).get(transitionName);
+        if (transitionId == null && JiraProperty.READ_CACHE_TTL_MILLIS.getLongValue(0) > 0) {
+            // the issue may have been moved by someone else since the transitions were kept
+            TRANSITION_IDS.invalidate(issueKey);
+            transitionId = loadTransitionIds(issueKey).get(transitionName);
+        }
+        if (transitionId == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Transition '%s' is not available for %s", transitionName, issueKey));
+        }
+        return transitionId;
+    }
+
+    private static Map<String, Integer> loadTransitionIds(String issueKey) {
+        return TRANSITION_IDS.get(issueKey, () -> {
+            JsonPath transitions = JiraConfig.getJIRARequestSpec()
+                    .get(JIRA_REST_PATH + ISSUE_PATH + issueKey + "?expand=transitions.fields")
+                    .thenReturn().jsonPath();
+            return zip(
+                    transitions.getList("transitions.name", String.class),
+                    transitions.getList("transitions.id", Integer.class));
+        });
+    }
+
+    /** Keeps the first value for duplicate names, as a JsonPath find would. */
+    private static <V> Map<String, V> zip(List<String> names, List<V> values) {
+        Map<String, V> map = new HashMap<>();
+        for (int i = 0; i < names.size() && i < values.size(); i++) {
+            map.putIfAbsent(names.get(i), values.get(i));
+        }
+        return map;
     }
 
 }
@@ -0,0 +1,144 @@
+package com.frameworkium.jira.api;
+
+import com.frameworkium.jira.concurrent.JiraExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Turns the issues selected by a JQL query into TestNG data provider parameters, e.g.
+ *
+ * <pre>{@code
+ * @DataProvider
+ * public Iterator<Object[]> accounts() {
+ *     return JqlDataProvider.issues("project = TESTDATA", "customfield_10100");
+ * }
+ *
+ * @Test(dataProvider = "accounts")
+ * public void login(String key, String summary, String username) { ... }
+ * }</pre>
+ *
+ * <p>Issues are searched for a page at a time as the iterator is consumed, with the
+ * next page fetched in the background, so there is no limit on the number of issues.
+ * TestNG consumes a non-parallel provider lazily, so its tests start before the last
+ * page has loaded. A {@code parallel = true} provider is read to the end before any of
+ * its tests start, so every page is loaded first.
+ */
+public final class JqlDataProvider {
+
+    private static final int PAGE_SIZE = 100;
+
+    private JqlDataProvider() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @param jql    JQL query selecting the issues
+     * @param fields the fields to add to each issue's parameters, after its key and summary
+     * @return an iterator of {key, summary, field values...} for each issue,
+     * safe to use from a parallel data provider
+     */
+    public static Iterator<Object[]> issues(String jql, String... fields) {
+        return new IssuePages(jql, fields);
+    }
+
+    private static final class IssuePages implements Iterator<Object[]> {
+
+        private final String jql;
+        private final String[] fields;
+        private final String[] searchFields;
+
+        private Iterator<Object[]> page = Collections.emptyIterator();
+        private CompletableFuture<SearchIssues> nextPage;
+        private int startAt;
+        private int total = -1;
+
+        private IssuePages(String jql, String[] fields) {
+            this.jql = jql;
+            this.fields = fields;
+            this.searchFields = new String[fields.length + 1];
+            searchFields[0] = "summary";
+            System.arraycopy(fields, 0, searchFields, 1, fields.length);
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            while (!page.hasNext()) {
+                if (!loadNextPage()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private boolean loadNextPage() {
+            if (nextPage == null) {
+                if (total >= 0 && startAt >= total) {
+                    return false;
+                }
+                nextPage = fetch(startAt);
+            }
+            SearchIssues search = join(nextPage);
+            nextPage = null;
+
+            List<String> keys = search.getKeys();
+            total = keys.isEmpty() ? startAt : search.getTotal();
+            startAt += keys.size();
+            if (startAt < total) {
+                nextPage = fetch(startAt);
+            }
+            page = rows(search, keys).iterator();
+            return !keys.isEmpty();
+        }
+
+        private CompletableFuture<SearchIssues> fetch(int from) {
+            return CompletableFuture.supplyAsync(
+                    () -> new SearchIssues(jql, from, PAGE_SIZE, searchFields),
+                    JiraExecutors.background());
+        }
+
+        private List<Object[]> rows(SearchIssues search, List<String> keys) {
+            List<String> summaries = search.getSummaries();
+            List<List<Object>> values = new ArrayList<>();
+            for (String field : fields) {
+                values.add(search.getFieldValues(field));
+            }
+
+            List<Object[]> rows = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                Object[] row = new Object[fields.length + 2];
+                row[0] = keys.get(i);
+                row[1] = summaries.get(i);
+                for (int f = 0; f < fields.length; f++) {
+                    row[f + 2] = values.get(f).get(i);
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        private static SearchIssues join(CompletableFuture<SearchIssues> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.frameworkium.jira.api;
+
+import com.frameworkium.jira.cache.JqlSelectionCache;
+import com.frameworkium.jira.cache.MetadataCache;
+import com.frameworkium.jira.concurrent.ConcurrencyLanes;
+import com.frameworkium.jira.concurrent.JiraExecutors;
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The keys of the issues selected by a JQL query, searched for at most once per run,
+ * with their concurrency lanes if {@link JiraProperty#CONCURRENCY_FIELD} is specified.
+ *
+ * <p>The search can be started in the background with {@link #prefetch(String)}
+ * as soon as the query is known, so that by the time the keys are needed they
+ * have usually already been returned. Keys cached by {@link JqlSelectionCache}
+ * within {@link JiraProperty#JQL_CACHE_TTL} are used without searching at all.
+ * Cached keys have no lanes, so JIRA is always searched when lanes are wanted.
+ */
+public final class JqlSelection {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final Map<String, CompletableFuture<Selection>> selections =
+            new ConcurrentHashMap<>();
+
+    private JqlSelection() {
+        // hide default constructor for this util class
+    }
+
+    /** Starts searching for the issues selected by the JQL, if not already started. */
+    public static CompletableFuture<List<String>> prefetch(String jql) {
+        return prefetchSelection(jql).thenApply(selection -> selection.keys);
+    }
+
+    /** @return the keys of the issues selected by the JQL, waiting for the search if required */
+    public static List<String> getKeys(String jql) {
+        return getSelection(jql).keys;
+    }
+
+    /**
+     * @return the concurrency lane of each selected issue which has one, see {@link ConcurrencyLanes}
+     */
+    public static Map<String, String> getLanes(String jql) {
+        return getSelection(jql).lanes;
+    }
+
+    private static CompletableFuture<Selection> prefetchSelection(String jql) {
+        return selections.computeIfAbsent(jql, query ->
+                CompletableFuture.supplyAsync(() -> search(query), JiraExecutors.background()));
+    }
+
+    private static Selection getSelection(String jql) {
+        try {
+            return prefetchSelection(jql).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Selection search(String jql) {
+        Optional<List<String>> freshKeys = ConcurrencyLanes.isEnabled()
+                ? Optional.empty()
+                : JqlSelectionCache.get(jql);
+        if (freshKeys.isPresent()) {
+            logger.info("Using JQL query results cached within the TTL");
+            return new Selection(freshKeys.get(), new HashMap<>());
+        }
+
+        Selection selection = searchJira(jql);
+        JqlSelectionCache.put(jql, selection.keys);
+        return selection;
+    }
+
+    private static Selection searchJira(String jql) {
+        Optional<MetadataCache> cache = MetadataCache.ifEnabled();
+        Optional<List<String>> cachedKeys = cache.flatMap(c -> c.getSelection(jql));
+        if (cachedKeys.isPresent() && !ConcurrencyLanes.isEnabled()) {
+            logger.info("Using cached JQL query results");
+            return new Selection(cachedKeys.get(), new HashMap<>());
+        }
+
+        if (!ConcurrencyLanes.isEnabled()) {
+            List<String> keys = new SearchIssues(jql, "key").getKeys();
+            cache.ifPresent(c -> c.putSelection(jql, keys));
+            return new Selection(keys, new HashMap<>());
+        }
+
+        // the lanes are read in the same search, the cache only holds the keys
+        String field = JiraProperty.CONCURRENCY_FIELD.getValue();
+        SearchIssues search = new SearchIssues(jql, "key", field);
+        List<String> keys = search.getKeys();
+        List<Object> values = search.getFieldValues(field);
+        Map<String, String> lanes = new HashMap<>();
+        for (int i = 0; i < keys.size() && i < values.size(); i++) {
+            String key = keys.get(i);
+            fieldValues(values.get(i))
+                    .filter(ConcurrencyLanes::isLane)
+                    .findFirst()
+                    .ifPresent(lane -> lanes.put(key, lane));
+        }
+        cache.ifPresent(c -> c.putSelection(jql, keys));
+        return new Selection(keys, lanes);
+    }
+
+    /** Labels are lists of strings, select fields are objects with a value. */
+    private static Stream<String> fieldValues(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().flatMap(JqlSelection::fieldValues);
+        } else if (value instanceof Map) {
+            return fieldValues(((Map<?, ?>) value).get("value"));
+        } else if (value == null) {
+            return Stream.empty();
+        }
+        return Stream.of(value.toString().trim());
+    }
+
+    private static final class Selection {
+
+        private final List<String> keys;
+        private final Map<String, String> lanes;
+
+        private Selection(List<String> keys, Map<String, String> lanes) {
+            this.keys = keys;
+            this.lanes = lanes;
+        }
+    }
+}
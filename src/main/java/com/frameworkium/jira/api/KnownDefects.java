@@ -0,0 +1,154 @@
+package com.frameworkium.jira.api;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Links failed tests to known defects with the same failure signature.
+ *
+ * <p>A failure signature is a hash of the root cause's exception type and its top
+ * stack frames, ignoring messages, line numbers and framework frames, so the same
+ * root cause has the same signature from run to run.
+ *
+ * <p>A defect is known when it is selected by {@link JiraProperty#DEFECT_JQL} and
+ * labelled {@code failure-<signature>}. The defects are searched for once per run,
+ * on the first failure, after which matching a failure costs no JIRA requests.
+ */
+public final class KnownDefects {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final String LABEL_PREFIX = "failure-";
+    private static final int FRAMES_IN_SIGNATURE = 5;
+    private static final List<String> IGNORED_FRAME_PREFIXES = Arrays.asList(
+            "sun.reflect.", "jdk.internal.", "java.lang.reflect.", "org.testng.", "cucumber.");
+
+    private static volatile Map<String, String> defectsBySignature;
+    private static final Set<String> links = ConcurrentHashMap.newKeySet();
+
+    private KnownDefects() {
+        // hide default constructor for this util class
+    }
+
+    public static boolean isEnabled() {
+        return JiraProperty.DEFECT_JQL.isSpecified() && Property.JIRA_URL.isSpecified();
+    }
+
+    /**
+     * Links the test issue to the known defect with the same failure signature, if any.
+     * Each test is linked to a defect at most once per run.
+     *
+     * @return the key of the matching defect, if any
+     */
+    public static Optional<String> linkKnownDefect(String testIssueKey, Throwable failure) {
+        if (!isEnabled() || failure == null) {
+            return Optional.empty();
+        }
+
+        Optional<String> defect = Optional.ofNullable(getIndex().get(signature(failure)));
+        defect.filter(defectKey -> links.add(testIssueKey + "->" + defectKey))
+                .ifPresent(defectKey -> {
+                    logger.info("Linking {} to known defect {}", testIssueKey, defectKey);
+                    new Issue(testIssueKey).linkIssues(linkType(), testIssueKey, defectKey);
+                });
+        return defect;
+    }
+
+    /**
+     * Makes the defect known for the failure's signature, in this run and, by labelling
+     * the defect, in future runs.
+     */
+    public static void addKnownDefect(String defectKey, Throwable failure) {
+        String signature = signature(failure);
+        getIndex().put(signature, defectKey);
+
+        JSONObject labels = new JSONObject().put("update", new JSONObject()
+                .put("labels", new JSONArray()
+                        .put(new JSONObject().put("add", LABEL_PREFIX + signature))));
+        JiraTest.changeIssueFieldValue(defectKey, labels);
+    }
+
+    /**
+     * @return a stable hash of the root cause's type and top stack frames
+     */
+    public static String signature(Throwable failure) {
+        Throwable rootCause = failure;
+        Set<Throwable> seen = new HashSet<>();
+        while (rootCause.getCause() != null && seen.add(rootCause)) {
+            rootCause = rootCause.getCause();
+        }
+
+        StringBuilder normalised = new StringBuilder(rootCause.getClass().getName());
+        Arrays.stream(rootCause.getStackTrace())
+                .filter(frame -> IGNORED_FRAME_PREFIXES.stream().noneMatch(frame.getClassName()::startsWith))
+                .limit(FRAMES_IN_SIGNATURE)
+                .forEach(frame -> normalised.append('|')
+                        // lambda class names include a per-JVM counter
+                        .append(frame.getClassName().replaceAll("\\$\\$Lambda\\$.*", "\\$\\$Lambda"))
+                        .append('.')
+                        .append(frame.getMethodName()));
+
+        return sha1Prefix(normalised.toString());
+    }
+
+    private static Map<String, String> getIndex() {
+        if (defectsBySignature == null) {
+            synchronized (KnownDefects.class) {
+                if (defectsBySignature == null) {
+                    defectsBySignature = loadIndex();
+                }
+            }
+        }
+        return defectsBySignature;
+    }
+
+    private static Map<String, String> loadIndex() {
+        Map<String, String> index = new ConcurrentHashMap<>();
+        try {
+            SearchIssues defects = new SearchIssues(
+                    SearchIssues.restrict(JiraProperty.DEFECT_JQL.getValue(), "labels is not EMPTY"), "labels");
+            List<String> keys = defects.getKeys();
+            List<List<String>> labels = defects.getFieldValues("labels");
+            for (int i = 0; i < keys.size() && i < labels.size(); i++) {
+                String key = keys.get(i);
+                labels.get(i).stream()
+                        .filter(label -> label.startsWith(LABEL_PREFIX))
+                        .forEach(label -> index.put(label.substring(LABEL_PREFIX.length()), key));
+            }
+            logger.info("Loaded {} known defect signatures", index.size());
+        } catch (RuntimeException e) {
+            logger.warn("Unable to load known defects, failures will not be linked", e);
+        }
+        return index;
+    }
+
+    private static String linkType() {
+        return JiraProperty.DEFECT_LINK_TYPE.isSpecified()
+                ? JiraProperty.DEFECT_LINK_TYPE.getValue()
+                : "Relates";
+    }
+
+    private static String sha1Prefix(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 6; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is always available", e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.frameworkium.jira.api;
+
+import com.frameworkium.jira.properties.JiraProperty;
+import com.frameworkium.jira.sinks.ReportingBudget;
+import io.restassured.response.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes result comments to JIRA issues according to {@link JiraProperty#COMMENT_MODE}:
+ * <ul>
+ * <li>{@code event} (default) - a new comment for every call to {@link #add(String, String)}</li>
+ * <li>{@code upsert} - one comment per issue per run which is edited in place</li>
+ * <li>{@code consolidated} - one comment per issue per run which is written by {@link #flush()}</li>
+ * </ul>
+ */
+public final class RunComments {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // JIRA rejects comments longer than 32767 characters
+    private static final int MAX_COMMENT_LENGTH = 32_000;
+    private static final String SEPARATOR = "\n----\n";
+
+    private static final Map<String, RunComment> comments = new ConcurrentHashMap<>();
+
+    private RunComments() {
+        // hide default constructor for this util class
+    }
+
+    public enum Mode {
+        EVENT, UPSERT, CONSOLIDATED;
+
+        static Mode fromProperty() {
+            return Configured.MODE;
+        }
+
+        private static Mode parse() {
+            if (!JiraProperty.COMMENT_MODE.isSpecified()) {
+                return EVENT;
+            }
+            String mode = JiraProperty.COMMENT_MODE.getValue().trim();
+            for (Mode value : values()) {
+                if (value.name().equalsIgnoreCase(mode)) {
+                    return value;
+                }
+            }
+            logger.warn("Unknown jiraCommentMode '{}', expected one of {}, adding a comment per event",
+                    mode, Arrays.toString(values()));
+            return EVENT;
+        }
+
+        // the property is read once, when first needed
+        private static final class Configured {
+            private static final Mode MODE = parse();
+        }
+    }
+
+    /** Adds the text to this run's comment on the issue. */
+    public static void add(String issueKey, String text) {
+        if (ReportingBudget.dropComment()) {
+            return;
+        }
+        Mode mode = Mode.fromProperty();
+        if (mode == Mode.EVENT) {
+            JiraTest.addComment(issueKey, text);
+            return;
+        }
+
+        RunComment comment = comments.computeIfAbsent(issueKey, RunComment::new);
+        synchronized (comment) {
+            comment.append(text);
+            if (mode == Mode.UPSERT) {
+                comment.upsert();
+            }
+        }
+    }
+
+    /** Writes any comments which have been buffered, i.e. in consolidated mode. */
+    public static void flush() {
+        if (ReportingBudget.isExhausted()) {
+            logger.warn("Dropping buffered comments, the reporting budget is used up");
+            comments.clear();
+            return;
+        }
+        comments.values().forEach(comment -> {
+            synchronized (comment) {
+                comment.upsert();
+            }
+        });
+    }
+
+    private static class RunComment {
+
+        private final String issueKey;
+        private final StringBuilder body = new StringBuilder();
+        private String commentId;
+        private boolean written = true;
+
+        private RunComment(String issueKey) {
+            this.issueKey = issueKey;
+        }
+
+        private void append(String text) {
+            if (body.length() > 0) {
+                body.append(SEPARATOR);
+            }
+            body.append(text);
+            if (body.length() > MAX_COMMENT_LENGTH) {
+                // keep the latest results
+                body.delete(0, body.length() - MAX_COMMENT_LENGTH);
+            }
+            written = false;
+        }
+
+        private void upsert() {
+            if (written) {
+                return;
+            }
+            if (commentId == null) {
+                Response response = JiraTest.addComment(issueKey, body.toString());
+                if (response != null && response.statusCode() == 201) {
+                    commentId = response.jsonPath().getString("id");
+                } else {
+                    logger.warn("Failed to add run comment to {}", issueKey);
+                }
+            } else {
+                JiraTest.updateComment(issueKey, commentId, body.toString());
+            }
+            written = true;
+        }
+    }
+}
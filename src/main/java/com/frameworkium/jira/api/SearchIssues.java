@@ -2,22 +2,54 @@ package com.frameworkium.jira.api;
 
 import com.frameworkium.jira.JiraConfig;
 import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
 
 import java.util.List;
+import java.util.regex.Pattern;
 
 public class SearchIssues {
 
     private static final int MAX_SEARCH_RESULTS = 1000;
+    // a trailing ORDER BY clause, whose field names may be quoted
+    private static final Pattern ORDER_BY = Pattern.compile(
+            "(?:^|\\s+)ORDER\\s+BY\\s+(?:[^()\"']|\"[^\"]*\"|'[^']*')*$", Pattern.CASE_INSENSITIVE);
     private final JsonPath jsonPath;
 
     /**
      * Search all issues that match a string.
      */
     public SearchIssues(String query) {
+        this(query, new String[0]);
+    }
+
+    /**
+     * Search all issues that match a string, only returning the given fields.
+     *
+     * @param query  JQL query
+     * @param fields issue fields to return, all fields are returned if none are given
+     */
+    public SearchIssues(String query, String... fields) {
+        this(query, 0, MAX_SEARCH_RESULTS, fields);
+    }
+
+    /**
+     * Search one page of the issues that match a string, only returning the given fields.
+     *
+     * @param query      JQL query
+     * @param startAt    index of the first issue to return
+     * @param maxResults maximum number of issues to return, JIRA may return fewer
+     * @param fields     issue fields to return, all fields are returned if none are given
+     */
+    public SearchIssues(String query, int startAt, int maxResults, String... fields) {
         try {
-            jsonPath = JiraConfig.getJIRARequestSpec()
+            RequestSpecification request = JiraConfig.getJIRARequestSpec()
                     .param("jql", query)
-                    .param("maxResults", MAX_SEARCH_RESULTS)
+                    .param("startAt", startAt)
+                    .param("maxResults", maxResults);
+            if (fields.length > 0) {
+                request.param("fields", String.join(",", fields));
+            }
+            jsonPath = request
                     .when()
                     .get(JiraConfig.JIRA_REST_PATH + "search")
                     .thenReturn().jsonPath();
@@ -30,14 +62,43 @@ public class SearchIssues {
         }
     }
 
+    /**
+     * Combines a JQL query with a further condition, e.g. {@code updated >= "-5m"}.
+     * Any ORDER BY clause of the query is dropped, as it is only valid at the end of
+     * the combined query.
+     *
+     * @param query     JQL query, possibly empty or only an ORDER BY clause
+     * @param condition JQL condition every returned issue must also match
+     * @return JQL matching the issues of the query which also match the condition
+     */
+    public static String restrict(String query, String condition) {
+        String withoutOrderBy = ORDER_BY.matcher(query.trim()).replaceFirst("");
+        return withoutOrderBy.isEmpty()
+                ? condition
+                : String.format("(%s) AND %s", withoutOrderBy, condition);
+    }
+
     public List<String> getKeys() {
         return jsonPath.getList("issues.key");
     }
 
+    /** @return the total number of issues matching the query, which may exceed the keys returned */
+    public int getTotal() {
+        return jsonPath.getInt("total");
+    }
+
     public List<String> getSummaries() {
         return jsonPath.getList("issues.fields.summary");
     }
 
+    /**
+     * @param fieldName the name of the field, e.g. labels
+     * @return the value of the field for each issue, in the same order as the keys
+     */
+    public <T> List<T> getFieldValues(String fieldName) {
+        return jsonPath.getList("issues.fields." + fieldName);
+    }
+
     public String getKeyForSummary(final String summary) {
         return jsonPath.getString(
                 String.format("issues.find {it.fields.summary == '%s'}.key", summary));
@@ -0,0 +1,144 @@
+package com.frameworkium.jira.auth;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.JiraConfig;
+import com.frameworkium.jira.concurrent.JiraExecutors;
+import com.frameworkium.jira.properties.JiraProperty;
+import com.frameworkium.jira.transport.JiraTransport;
+import io.restassured.filter.Filter;
+import io.restassured.http.ContentType;
+import io.restassured.http.Cookie;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Authenticates to JIRA according to {@link JiraProperty#AUTH_MODE}:
+ * <ul>
+ * <li>{@code basic} (default) - every request sends the username and password</li>
+ * <li>{@code session} - one session is created, with JIRA's session resource, and its
+ * cookie is sent by every request from every thread. When the session expires, the
+ * first request to be rejected creates a new one and is retried.</li>
+ * </ul>
+ *
+ * <p>Basic auth makes JIRA authenticate every request, e.g. with an LDAP bind,
+ * which is slow on busy servers.
+ */
+public final class JiraSession {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final String SESSION_PATH = "/rest/auth/1/session";
+
+    private static final Filter FILTER = new SessionAuthFilter();
+    private static final AtomicBoolean warmedUp = new AtomicBoolean();
+
+    private static volatile Cookie session;
+    private static volatile boolean loginFailed;
+
+    private JiraSession() {
+        // hide default constructor for this util class
+    }
+
+    public static boolean isEnabled() {
+        return JiraProperty.AUTH_MODE.isSpecified()
+                && "session".equals(JiraProperty.AUTH_MODE.getValue().trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the filter which authenticates requests with the session cookie
+     */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Logs in, if using a session, and makes a first request in the background, so that is
+     * done before the first result is reported. The {@code jdk} transport also keeps the
+     * request's connection, and its TLS session, for later requests. RestAssured's default
+     * client opens a connection per request, so there is nothing to warm up without one of
+     * them. Only the first call does anything.
+     */
+    public static void warmUp() {
+        if (!Property.JIRA_URL.isSpecified()
+                || (!isEnabled() && !JiraTransport.filter().isPresent())
+                || !warmedUp.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            JiraConfig.getJIRARequestSpec()
+                    .get(JiraConfig.JIRA_REST_PATH + "serverInfo")
+                    .then().statusCode(200);
+            logger.debug("Warmed up the JIRA connection in {}ms", System.currentTimeMillis() - start);
+        }, JiraExecutors.background()).exceptionally(e -> {
+            logger.warn("Unable to warm up the JIRA connection", e);
+            return null;
+        });
+    }
+
+    /**
+     * @return the current session, creating one if there is none, or empty if logging in
+     * failed, when requests fall back to basic auth for the rest of the run
+     */
+    static Optional<Cookie> current() {
+        Cookie current = session;
+        if (current != null || loginFailed) {
+            return Optional.ofNullable(current);
+        }
+        synchronized (JiraSession.class) {
+            if (session == null && !loginFailed) {
+                try {
+                    session = login();
+                } catch (RuntimeException e) {
+                    loginFailed = true;
+                    logger.error("Unable to create a JIRA session, using basic auth instead", e);
+                }
+            }
+            return Optional.ofNullable(session);
+        }
+    }
+
+    /**
+     * Forgets the session, unless another thread has already replaced it.
+     */
+    static synchronized void invalidate(Cookie expired) {
+        if (session == expired) {
+            session = null;
+        }
+    }
+
+    private static Cookie login() {
+        JSONObject credentials = new JSONObject()
+                .put("username", Property.JIRA_USERNAME.getValue())
+                .put("password", Property.JIRA_PASSWORD.getValue());
+
+        Response response = given()
+                .config(JiraConfig.getRestAssuredConfig())
+                .baseUri(Property.JIRA_URL.getValue())
+                .relaxedHTTPSValidation()
+                .contentType(ContentType.JSON)
+                .body(credentials.toString())
+                .when()
+                .post(SESSION_PATH);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Logging in to JIRA returned " + response.statusLine());
+        }
+
+        logger.debug("Created a JIRA session");
+        JsonPath session = response.jsonPath();
+        return new Cookie.Builder(
+                session.getString("session.name"),
+                session.getString("session.value"))
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.frameworkium.jira.auth;
+
+import com.frameworkium.base.properties.Property;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Cookie;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Sends the {@link JiraSession} cookie and, if the session has expired,
+ * creates a new session and retries the request once. If no session can be
+ * created, the request is sent with basic auth instead.
+ */
+class SessionAuthFilter implements Filter {
+
+    private static final int UNAUTHORIZED = 401;
+
+    @Override
+    public Response filter(
+            FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec,
+            FilterContext ctx) {
+
+        Optional<Cookie> session = JiraSession.current();
+        authenticate(requestSpec, session);
+        Response response = ctx.next(requestSpec, responseSpec);
+        if (response.statusCode() != UNAUTHORIZED || !session.isPresent()) {
+            return response;
+        }
+
+        JiraSession.invalidate(session.get());
+        requestSpec.removeCookie(session.get());
+        // the filter chain can only be run once, so the retry is a copy of the request
+        // which only passes through the filters after this one, e.g. not the recording ones
+        List<Filter> filters = requestSpec.getDefinedFilters();
+        List<Filter> downstream = filters.subList(filters.indexOf(this) + 1, filters.size());
+        RequestSpecification retry = given()
+                .spec(requestSpec)
+                .noFilters()
+                .filters(downstream);
+        authenticate(retry, JiraSession.current());
+        return ctx.send(retry);
+    }
+
+    private static void authenticate(RequestSpecification requestSpec, Optional<Cookie> session) {
+        if (session.isPresent()) {
+            requestSpec.cookie(session.get());
+        } else {
+            // a header rather than RestAssured's auth, so it is also sent by the jdk transport
+            String credentials = Property.JIRA_USERNAME.getValue() + ":" + Property.JIRA_PASSWORD.getValue();
+            requestSpec.header("Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
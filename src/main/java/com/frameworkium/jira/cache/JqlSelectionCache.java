@@ -0,0 +1,110 @@
+package com.frameworkium.jira.cache;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * On-disk cache of the keys selected by JQL queries, per JIRA URL, which are used
+ * for {@link JiraProperty#JQL_CACHE_TTL} seconds without making any request to JIRA.
+ *
+ * <p>Unlike the {@link MetadataCache} this needs no other settings: the file is kept in
+ * {@link JiraProperty#METADATA_CACHE_DIR} if specified, otherwise in {@code target/jira-cache}.
+ * Selections older than the TTL are searched for again, and kept up to date by the
+ * metadata cache's incremental sync if it is enabled.
+ */
+public final class JqlSelectionCache {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private JqlSelectionCache() {
+        // hide default constructor for this util class
+    }
+
+    public static boolean isEnabled() {
+        return JiraProperty.JQL_CACHE_TTL.getLongValue(0) > 0 && Property.JIRA_URL.isSpecified();
+    }
+
+    /**
+     * @return the keys selected by the JQL if they were cached less than the TTL ago
+     */
+    public static Optional<List<String>> get(String jql) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        JSONObject selection = read().optJSONObject(jql);
+        long ttlMillis = JiraProperty.JQL_CACHE_TTL.getLongValue(0) * 1000;
+        if (selection == null || System.currentTimeMillis() - selection.optLong("cachedAt") >= ttlMillis) {
+            return Optional.empty();
+        }
+        List<String> keys = new ArrayList<>();
+        selection.getJSONArray("keys").forEach(key -> keys.add(key.toString()));
+        return Optional.of(keys);
+    }
+
+    public static void put(String jql, List<String> keys) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path file = file();
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(Paths.get(file + ".lock"), CREATE, WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    JSONObject selections = read();
+                    selections.put(jql, new JSONObject()
+                            .put("keys", keys)
+                            .put("cachedAt", System.currentTimeMillis()));
+                    Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+                    Files.write(temp, selections.toString().getBytes(StandardCharsets.UTF_8));
+                    Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write JQL selection cache {}", file, e);
+        }
+    }
+
+    /** The file is replaced atomically, so is read without locking. */
+    private static JSONObject read() {
+        Path file = file();
+        if (!Files.exists(file)) {
+            return new JSONObject();
+        }
+        try {
+            return new JSONObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } catch (IOException | JSONException e) {
+            logger.warn("Discarding unreadable JQL selection cache {}", file, e);
+            return new JSONObject();
+        }
+    }
+
+    private static Path file() {
+        String dir = JiraProperty.METADATA_CACHE_DIR.isSpecified()
+                ? JiraProperty.METADATA_CACHE_DIR.getValue()
+                : "target/jira-cache";
+        return Paths.get(dir, Property.JIRA_URL.getValue().replaceAll("[^A-Za-z0-9]+", "_") + "-jql.json");
+    }
+}
@@ -0,0 +1,420 @@
+package com.frameworkium.jira.cache;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.api.SearchIssues;
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * On-disk cache of JIRA issue and Zephyr execution metadata which is shared
+ * between runs, and between JVMs on the same machine, for a single JIRA URL.
+ *
+ * <p>Enabled by specifying {@link JiraProperty#METADATA_CACHE_DIR}. When first
+ * used in a run the cache is refreshed incrementally: one
+ * {@code updated >= -Nm} JQL query per known project evicts the execution IDs
+ * and JQL selections of every issue changed since that project's last sync,
+ * and bumps the project's version stamp. Each cached JQL selection is then
+ * refreshed with one more query for its issues changed since it was synced.
+ * To use a selection without any query see {@link JqlSelectionCache}.
+ *
+ * <p>Field IDs are not evicted by issue updates, as they only change with the
+ * JIRA configuration, and are re-fetched whenever a name is not found in the
+ * cache. Transition IDs are not cached, as which transitions an issue has
+ * depends on its current status.
+ *
+ * <p>Execution IDs are cached per issue and set of {@link com.frameworkium.jira.zapi.ResultTarget}s.
+ * When merging with the file written by another JVM, the evictions made by whichever
+ * synced a project last are kept, so an evicted entry is never written back.
+ *
+ * <p>Every read or write of the cache file holds an exclusive lock on a
+ * sibling {@code .lock} file and the file is replaced atomically. The sync
+ * queries run without the lock, between reading the file and merging back
+ * into it, so JVMs starting together may each run them.
+ */
+public final class MetadataCache {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int FORMAT_VERSION = 2;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    // allow for JQL's minute precision and clock skew between us and JIRA
+    private static final long SYNC_MARGIN_MINUTES = 2;
+
+    private static volatile MetadataCache instance;
+
+    private final Path file;
+    private final Path lockFile;
+
+    private final Map<String, String> fieldIds = new ConcurrentHashMap<>();
+    private final Map<String, CachedIds> executionIds = new ConcurrentHashMap<>();
+    private final Map<String, Selection> selections = new ConcurrentHashMap<>();
+    private final Map<String, ProjectStamp> projects = new ConcurrentHashMap<>();
+    // when this JVM last synced, entries older than this which it does not hold were evicted
+    private volatile long lastSync;
+
+    private MetadataCache(Path file) {
+        this.file = file;
+        this.lockFile = Paths.get(file + ".lock");
+    }
+
+    public static boolean isEnabled() {
+        return JiraProperty.METADATA_CACHE_DIR.isSpecified() && Property.JIRA_URL.isSpecified();
+    }
+
+    /**
+     * @return the cache for this run, loading and refreshing it on first use,
+     *         or empty if the cache is not enabled
+     */
+    public static Optional<MetadataCache> ifEnabled() {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        if (instance == null) {
+            synchronized (MetadataCache.class) {
+                if (instance == null) {
+                    instance = load();
+                }
+            }
+        }
+        return Optional.of(instance);
+    }
+
+    private static MetadataCache load() {
+        String fileName = Property.JIRA_URL.getValue().replaceAll("[^A-Za-z0-9]+", "_") + ".json";
+        MetadataCache cache = new MetadataCache(
+                Paths.get(JiraProperty.METADATA_CACHE_DIR.getValue(), fileName));
+        // query JIRA without the lock, so other JVMs are not held up by our searches
+        cache.withFileLock(() -> cache.merge(cache.read()));
+        cache.sync();
+        cache.flush();
+        Runtime.getRuntime().addShutdownHook(new Thread(cache::flush, "jira-metadata-cache-flush"));
+        return cache;
+    }
+
+    public Optional<String> getFieldId(String fieldName) {
+        return Optional.ofNullable(fieldIds.get(fieldName));
+    }
+
+    public void putFieldIds(Map<String, String> fieldIdsByName) {
+        fieldIds.putAll(fieldIdsByName);
+    }
+
+    /**
+     * @param targets the result targets the executions were searched for in, e.g. {@code ResultTarget.all()}
+     */
+    public Optional<List<Integer>> getExecutionIds(String issueKey, String targets) {
+        return Optional.ofNullable(executionIds.get(executionKey(issueKey, targets)))
+                .map(cached -> cached.ids);
+    }
+
+    /** Only non-empty lists are cached as ZAPI does not mark issues as updated when executions are created. */
+    public void putExecutionIds(String issueKey, String targets, List<Integer> ids) {
+        if (ids != null && !ids.isEmpty()) {
+            registerProject(projectOf(issueKey));
+            executionIds.put(executionKey(issueKey, targets),
+                    new CachedIds(new ArrayList<>(ids), System.currentTimeMillis()));
+        }
+    }
+
+    /** Forgets the issue's execution IDs in every set of targets, e.g. after creating executions. */
+    public void evictExecutionIds(String issueKey) {
+        executionIds.keySet().removeIf(key -> issueOf(key).equals(issueKey));
+    }
+
+    public Optional<List<String>> getSelection(String jql) {
+        return Optional.ofNullable(selections.get(jql)).map(selection -> selection.keys);
+    }
+
+    public void putSelection(String jql, List<String> keys) {
+        keys.stream().map(MetadataCache::projectOf).distinct().forEach(this::registerProject);
+        selections.put(jql, new Selection(new ArrayList<>(keys), System.currentTimeMillis()));
+    }
+
+    /** Merges this run's entries into the cache file, keeping newer entries from other JVMs. */
+    public void flush() {
+        withFileLock(() -> {
+            merge(read());
+            write();
+        });
+    }
+
+    private void registerProject(String project) {
+        projects.putIfAbsent(project, new ProjectStamp(System.currentTimeMillis(), 1));
+    }
+
+    private void sync() {
+        long now = System.currentTimeMillis();
+        lastSync = now;
+        Set<String> changedKeys = new HashSet<>();
+        boolean projectEvicted = false;
+
+        for (Map.Entry<String, ProjectStamp> entry : projects.entrySet()) {
+            String project = entry.getKey();
+            ProjectStamp stamp = entry.getValue();
+            String jql = String.format("project = \"%s\" AND updated >= \"-%dm\"",
+                    project, minutesSince(stamp.lastSync, now));
+            try {
+                SearchIssues delta = new SearchIssues(jql, "key");
+                List<String> keys = delta.getKeys();
+                if (delta.getTotal() > keys.size()) {
+                    evictProject(project);
+                    projectEvicted = true;
+                } else {
+                    changedKeys.addAll(keys);
+                }
+                projects.put(project, new ProjectStamp(now, stamp.version + 1));
+            } catch (RuntimeException e) {
+                logger.warn("Unable to sync metadata cache for project {}", project, e);
+                evictProject(project);
+                projects.remove(project);
+                projectEvicted = true;
+            }
+        }
+        executionIds.keySet().removeIf(key -> changedKeys.contains(issueOf(key)));
+
+        if (projectEvicted) {
+            selections.clear();
+        } else {
+            syncSelections(changedKeys, now);
+        }
+        logger.info("Synced metadata cache {}, {} changed issues", file, changedKeys.size());
+    }
+
+    /**
+     * Issues which were not updated since the last sync cannot have joined or left a selection,
+     * so only the changed issues need to be queried again.
+     */
+    private void syncSelections(Set<String> changedKeys, long now) {
+        for (Map.Entry<String, Selection> entry : selections.entrySet()) {
+            String jql = SearchIssues.restrict(entry.getKey(),
+                    String.format("updated >= \"-%dm\"", minutesSince(entry.getValue().syncedAt, now)));
+            try {
+                SearchIssues matching = new SearchIssues(jql, "key");
+                if (matching.getTotal() > matching.getKeys().size()) {
+                    selections.remove(entry.getKey());
+                    continue;
+                }
+                List<String> keys = entry.getValue().keys.stream()
+                        .filter(key -> !changedKeys.contains(key))
+                        .collect(toList());
+                keys.addAll(matching.getKeys());
+                selections.put(entry.getKey(), new Selection(keys, now));
+            } catch (RuntimeException e) {
+                logger.warn("Unable to sync cached JQL selection '{}'", entry.getKey(), e);
+                selections.remove(entry.getKey());
+            }
+        }
+    }
+
+    private void evictProject(String project) {
+        executionIds.keySet().removeIf(key -> projectOf(issueOf(key)).equals(project));
+    }
+
+    private static long minutesSince(long millis, long now) {
+        return Math.max(0, now - millis) / MILLIS_PER_MINUTE + SYNC_MARGIN_MINUTES;
+    }
+
+    private static String executionKey(String issueKey, String targets) {
+        return issueKey + "|" + targets;
+    }
+
+    private static String issueOf(String executionKey) {
+        return executionKey.substring(0, executionKey.indexOf('|'));
+    }
+
+    private static String projectOf(String issueKey) {
+        int separator = issueKey.lastIndexOf('-');
+        return separator > 0 ? issueKey.substring(0, separator) : issueKey;
+    }
+
+    /** Holds an exclusive lock across JVMs, and a monitor across threads as file locks are per JVM. */
+    private synchronized void withFileLock(Runnable action) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, CREATE, WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    action.run();
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Metadata cache {} is unavailable", file, e);
+        }
+    }
+
+    private JSONObject read() {
+        if (!Files.exists(file)) {
+            return new JSONObject();
+        }
+        try {
+            JSONObject json = new JSONObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            if (json.optInt("formatVersion") != FORMAT_VERSION) {
+                logger.info("Discarding metadata cache {} with an old format", file);
+                return new JSONObject();
+            }
+            return json;
+        } catch (IOException | JSONException e) {
+            logger.warn("Discarding unreadable metadata cache {}", file, e);
+            return new JSONObject();
+        }
+    }
+
+    /**
+     * Merges the entries read from disk with those in memory.
+     *
+     * <p>For a project which another JVM has synced more recently than this one, the newer
+     * of each entry is kept and ours which are missing from disk, so were evicted by that sync,
+     * are dropped unless fetched after it. Otherwise entries on disk which are missing from memory
+     * are only added if fetched after our last sync, as older ones were evicted by it.
+     */
+    private void merge(JSONObject json) {
+        Map<String, ProjectStamp> ourStamps = new HashMap<>(projects);
+        Set<String> newerOnDisk = new HashSet<>();
+        long newestDiskSync = 0;
+        JSONObject projectsJson = json.optJSONObject("projects");
+        if (projectsJson != null) {
+            for (String project : projectsJson.keySet()) {
+                JSONObject stamp = projectsJson.getJSONObject(project);
+                ProjectStamp disk = new ProjectStamp(stamp.getLong("lastSync"), stamp.getInt("version"));
+                ProjectStamp ours = projects.get(project);
+                if (ours == null || disk.version > ours.version) {
+                    projects.put(project, disk);
+                    newerOnDisk.add(project);
+                    newestDiskSync = Math.max(newestDiskSync, disk.lastSync);
+                }
+            }
+        }
+
+        JSONObject fields = json.optJSONObject("fields");
+        if (fields != null) {
+            fields.keySet().forEach(name -> fieldIds.putIfAbsent(name, fields.getString(name)));
+        }
+
+        JSONObject executions = json.optJSONObject("executions");
+        Set<String> onDisk = executions == null ? new HashSet<>() : executions.keySet();
+        executionIds.entrySet().removeIf(entry -> {
+            String project = projectOf(issueOf(entry.getKey()));
+            return newerOnDisk.contains(project)
+                    && !onDisk.contains(entry.getKey())
+                    && entry.getValue().fetchedAt < projects.get(project).lastSync;
+        });
+        for (String key : onDisk) {
+            JSONObject cached = executions.getJSONObject(key);
+            CachedIds disk = new CachedIds(toIntegers(cached.getJSONArray("ids")), cached.getLong("fetchedAt"));
+            String project = projectOf(issueOf(key));
+            if (newerOnDisk.contains(project)) {
+                executionIds.merge(key, disk, (ours, theirs) -> ours.fetchedAt > theirs.fetchedAt ? ours : theirs);
+            } else if (!ourStamps.containsKey(project) || disk.fetchedAt >= ourStamps.get(project).lastSync) {
+                executionIds.putIfAbsent(key, disk);
+            }
+        }
+
+        JSONObject selectionsJson = json.optJSONObject("selections");
+        Set<String> selectionsOnDisk = selectionsJson == null ? new HashSet<>() : selectionsJson.keySet();
+        long evictedBefore = newestDiskSync;
+        selections.entrySet().removeIf(entry ->
+                !selectionsOnDisk.contains(entry.getKey()) && entry.getValue().syncedAt < evictedBefore);
+        for (String jql : selectionsOnDisk) {
+            JSONObject selection = selectionsJson.getJSONObject(jql);
+            List<String> keys = new ArrayList<>();
+            selection.getJSONArray("keys").forEach(key -> keys.add(key.toString()));
+            Selection disk = new Selection(keys, selection.getLong("syncedAt"));
+            Selection ours = selections.get(jql);
+            if (ours != null ? disk.syncedAt > ours.syncedAt : disk.syncedAt >= lastSync) {
+                selections.put(jql, disk);
+            }
+        }
+    }
+
+    private void write() {
+        JSONObject json = new JSONObject();
+        json.put("formatVersion", FORMAT_VERSION);
+
+        JSONObject projectsJson = new JSONObject();
+        projects.forEach((project, stamp) -> projectsJson.put(project,
+                new JSONObject().put("lastSync", stamp.lastSync).put("version", stamp.version)));
+        json.put("projects", projectsJson);
+
+        json.put("fields", new JSONObject(fieldIds));
+
+        JSONObject executions = new JSONObject();
+        executionIds.forEach((key, cached) -> executions.put(key, new JSONObject()
+                .put("ids", new JSONArray(cached.ids))
+                .put("fetchedAt", cached.fetchedAt)));
+        json.put("executions", executions);
+
+        JSONObject selectionsJson = new JSONObject();
+        selections.forEach((jql, selection) -> selectionsJson.put(jql, new JSONObject()
+                .put("keys", new JSONArray(selection.keys))
+                .put("syncedAt", selection.syncedAt)));
+        json.put("selections", selectionsJson);
+
+        try {
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temp, json.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Unable to write metadata cache {}", file, e);
+        }
+    }
+
+    private static List<Integer> toIntegers(JSONArray array) {
+        List<Integer> integers = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++) {
+            integers.add(array.getInt(i));
+        }
+        return integers;
+    }
+
+    private static class ProjectStamp {
+        private final long lastSync;
+        private final int version;
+
+        private ProjectStamp(long lastSync, int version) {
+            this.lastSync = lastSync;
+            this.version = version;
+        }
+    }
+
+    private static class CachedIds {
+        private final List<Integer> ids;
+        private final long fetchedAt;
+
+        private CachedIds(List<Integer> ids, long fetchedAt) {
+            this.ids = ids;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private static class Selection {
+        private final List<String> keys;
+        private final long syncedAt;
+
+        private Selection(List<String> keys, long syncedAt) {
+            this.keys = keys;
+            this.syncedAt = syncedAt;
+        }
+    }
+}
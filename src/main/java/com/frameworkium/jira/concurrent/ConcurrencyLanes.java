@@ -0,0 +1,120 @@
+package com.frameworkium.jira.concurrent;
+
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many tests of the same lane run at once, whatever the suite's thread count.
+ *
+ * <p>A test's lane comes from the {@link JiraProperty#CONCURRENCY_FIELD} of its issue:
+ * <ul>
+ * <li>{@code serial} - one test of the lane at a time</li>
+ * <li>{@code pool:<name>} - up to the pool's size in {@link JiraProperty#POOL_SIZES},
+ * e.g. {@code -DjiraPoolSizes=payments=2,search=4}, at a time, default 1</li>
+ * </ul>
+ * Tests without a lane run at full parallelism. A test which has waited
+ * {@link JiraProperty#LANE_TIMEOUT_MILLIS} for its lane runs without a permit,
+ * so a permit which is never released cannot stall the run.
+ */
+public final class ConcurrencyLanes {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 1_800_000L;
+
+    public static final String SERIAL = "serial";
+    public static final String POOL_PREFIX = "pool:";
+
+    private static final Map<String, String> lanesByIssue = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, String> lanesByClass = new ConcurrentHashMap<>();
+    private static final Map<String, Semaphore> permitsByLane = new ConcurrentHashMap<>();
+
+    private ConcurrencyLanes() {
+        // hide default constructor for this util class
+    }
+
+    public static boolean isEnabled() {
+        return JiraProperty.CONCURRENCY_FIELD.isSpecified();
+    }
+
+    /**
+     * @return whether the value of the concurrency field names a lane
+     */
+    public static boolean isLane(String value) {
+        return SERIAL.equals(value) || (value != null && value.startsWith(POOL_PREFIX));
+    }
+
+    public static void assign(String issueKey, String lane) {
+        lanesByIssue.put(issueKey, lane);
+    }
+
+    public static Optional<String> laneOf(String issueKey) {
+        return Optional.ofNullable(issueKey).map(lanesByIssue::get);
+    }
+
+    /**
+     * Records that every test to run from the class is in the lane.
+     */
+    public static void assignClass(Class<?> testClass, String lane) {
+        lanesByClass.put(testClass, lane);
+    }
+
+    /**
+     * @return the lane of every test to run from the class, if they are all in the same one
+     */
+    public static Optional<String> classLaneOf(Class<?> testClass) {
+        return Optional.ofNullable(lanesByClass.get(testClass));
+    }
+
+    /**
+     * Waits until the issue's test may run in its lane, if it has one.
+     *
+     * @return the permit to release when the test has finished, if one was taken
+     */
+    public static Optional<Semaphore> acquire(String issueKey) {
+        return laneOf(issueKey).flatMap(ConcurrencyLanes::acquireLane);
+    }
+
+    /**
+     * Waits until a test may run in the lane, for at most {@link JiraProperty#LANE_TIMEOUT_MILLIS}.
+     *
+     * @return the permit to release when the test has finished, empty if the wait timed out
+     */
+    public static Optional<Semaphore> acquireLane(String lane) {
+        Semaphore permits = permitsByLane.computeIfAbsent(lane, l -> new Semaphore(size(l), true));
+        long timeoutMillis = JiraProperty.LANE_TIMEOUT_MILLIS.getLongValue(DEFAULT_TIMEOUT_MILLIS);
+        try {
+            if (permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return Optional.of(permits);
+            }
+            logger.warn("Waited {}ms for concurrency lane {}, running without it", timeoutMillis, lane);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted waiting for concurrency lane {}, running without it", lane);
+        }
+        return Optional.empty();
+    }
+
+    private static int size(String lane) {
+        if (!lane.startsWith(POOL_PREFIX) || !JiraProperty.POOL_SIZES.isSpecified()) {
+            return 1;
+        }
+        String pool = lane.substring(POOL_PREFIX.length());
+        for (String poolSize : JiraProperty.POOL_SIZES.getValue().split(",")) {
+            String[] nameAndSize = poolSize.split("=", 2);
+            if (nameAndSize.length == 2 && nameAndSize[0].trim().equals(pool)
+                    && StringUtils.isNumeric(nameAndSize[1].trim())) {
+                return Math.max(1, Integer.parseInt(nameAndSize[1].trim()));
+            }
+        }
+        return 1;
+    }
+}
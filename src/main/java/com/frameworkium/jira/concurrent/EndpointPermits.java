@@ -0,0 +1,29 @@
+package com.frameworkium.jira.concurrent;
+
+import io.restassured.filter.Filter;
+
+import java.util.Optional;
+
+/**
+ * Bounds the JIRA and ZAPI requests in flight per class of endpoint.
+ *
+ * <p>On Java 8 and 11 this version bounds nothing: uploads run on the fixed size upload
+ * pool of {@link JiraExecutors}, and other requests are sent from the test threads or the
+ * unbounded background pool, so are bounded only by how many tests run at once.
+ * On Java 21+ that work runs on virtual threads and the version of this class in
+ * {@code META-INF/versions/21} of the multi-release jar is loaded instead,
+ * see {@code src/main/java21}.
+ */
+public final class EndpointPermits {
+
+    private EndpointPermits() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return a filter which holds a permit of the request's endpoint class while it is sent, if any
+     */
+    public static Optional<Filter> filter() {
+        return Optional.empty();
+    }
+}
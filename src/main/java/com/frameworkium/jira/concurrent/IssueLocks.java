@@ -0,0 +1,50 @@
+package com.frameworkium.jira.concurrent;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped, reentrant locks keyed by JIRA issue key.
+ *
+ * <p>Updates to the same issue are serialised while updates to different issues
+ * only contend when their keys share one of the {@value #STRIPES} stripes.
+ */
+public final class IssueLocks {
+
+    private static final int STRIPES = 64;
+
+    private static final Lock[] locks = new Lock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            // fair so updates to an issue are applied in the order they were made
+            locks[i] = new ReentrantLock(true);
+        }
+    }
+
+    private IssueLocks() {
+        // hide default constructor for this util class
+    }
+
+    public static Lock lockFor(String issueKey) {
+        return locks[(issueKey.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    public static void withLock(String issueKey, Runnable action) {
+        withLock(issueKey, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T withLock(String issueKey, Supplier<T> action) {
+        Lock lock = lockFor(issueKey);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
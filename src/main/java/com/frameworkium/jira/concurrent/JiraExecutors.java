@@ -0,0 +1,37 @@
+package com.frameworkium.jira.concurrent;
+
+import com.frameworkium.jira.properties.JiraProperty;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for work the library runs off the test threads, e.g. prefetching.
+ */
+public final class JiraExecutors {
+
+    private static final ExecutorService background =
+            Executors.newCachedThreadPool(new DaemonThreadFactory("jira-background"));
+
+    private static final ExecutorService uploads = Executors.newFixedThreadPool(
+            JiraProperty.UPLOAD_CONCURRENCY.getIntValue(2),
+            new DaemonThreadFactory("jira-upload"));
+
+    private JiraExecutors() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return an unbounded pool of daemon threads, which never prevent the JVM exiting
+     */
+    public static ExecutorService background() {
+        return background;
+    }
+
+    /**
+     * @return a pool of {@link JiraProperty#UPLOAD_CONCURRENCY} daemon threads for attachment uploads
+     */
+    public static ExecutorService uploads() {
+        return uploads;
+    }
+}
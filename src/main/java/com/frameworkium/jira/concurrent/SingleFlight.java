@@ -0,0 +1,91 @@
+package com.frameworkium.jira.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * De-duplicates concurrent loads of the same key: while a load is in flight,
+ * other callers asking for the same key wait for, and share, its result.
+ *
+ * <p>Results can also be kept for a short time after loading, so a burst of
+ * requests made just after one another is served by one load.
+ *
+ * @param <K> the type of key, e.g. a request path
+ * @param <V> the type of the loaded, usually parsed, result
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Loaded<V>> loaded = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    /**
+     * @param ttlMillis how long to keep results after loading, 0 to only share in-flight loads
+     */
+    public SingleFlight(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @param key    identifies the load
+     * @param loader loads the value, only called if no load of the key is in flight
+     * @return the loaded value, possibly loaded by another thread
+     */
+    public V get(K key, Supplier<V> loader) {
+        if (ttlMillis > 0) {
+            Loaded<V> previous = loaded.get(key);
+            if (previous != null && System.currentTimeMillis() < previous.expiresAt) {
+                return previous.value;
+            }
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            V value = loader.get();
+            if (ttlMillis > 0) {
+                loaded.put(key, new Loaded<>(value, System.currentTimeMillis() + ttlMillis));
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /** Forgets any kept result of the key, e.g. after the loaded resource has been changed. */
+    public void invalidate(K key) {
+        loaded.remove(key);
+    }
+
+    private static <V> V join(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class Loaded<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Loaded(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
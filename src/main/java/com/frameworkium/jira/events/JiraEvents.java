@@ -0,0 +1,37 @@
+package com.frameworkium.jira.events;
+
+import io.restassured.filter.Filter;
+
+import java.util.Optional;
+
+/**
+ * Java Flight Recorder events for JIRA and ZAPI requests and listener callbacks.
+ *
+ * <p>Java 8 has no JFR event API, so this version records nothing. On Java 11+ the
+ * version of this class in {@code META-INF/versions/11} of the multi-release jar is
+ * loaded instead, see {@code src/main/java11}.
+ */
+public final class JiraEvents {
+
+    private JiraEvents() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return a filter which records an event for each request, if supported
+     */
+    public static Optional<Filter> requestFilter() {
+        return Optional.empty();
+    }
+
+    /**
+     * Starts recording a listener callback, to be closed when the callback returns.
+     *
+     * @param listener the simple name of the listener
+     * @param callback the name of the callback method
+     * @param testName the test or scenario the callback is for, may be null
+     */
+    public static ListenerCallback callback(String listener, String callback, String testName) {
+        return ListenerCallback.NONE;
+    }
+}
@@ -0,0 +1,13 @@
+package com.frameworkium.jira.events;
+
+/**
+ * The span of a listener callback, closed when the callback returns.
+ */
+public interface ListenerCallback extends AutoCloseable {
+
+    /** Does nothing, used when events are not being recorded. */
+    ListenerCallback NONE = () -> {};
+
+    @Override
+    void close();
+}
@@ -0,0 +1,150 @@
+package com.frameworkium.jira.listeners;
+
+import com.frameworkium.jira.concurrent.ConcurrencyLanes;
+import com.frameworkium.reporting.allure.TestIdUtils;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Holds each test in its {@link ConcurrencyLanes lane}, as assigned by
+ * {@link MethodInterceptor}, from its first {@code @BeforeMethod} until its result
+ * is reported. TestNG reports the result before running the {@code @AfterMethod}s,
+ * so these run outside the lane.
+ *
+ * <p>TestNG does not tell listeners which test a {@code @BeforeMethod} runs for, so
+ * the permit is taken before the configuration methods only if every selected test of
+ * the class is in the same lane, otherwise when the test itself starts.
+ *
+ * <p>Any permit still held when its {@code <test>} finishes, e.g. as TestNG did not
+ * report a result, is released then.
+ */
+public class ConcurrencyLaneListener implements IInvokedMethodListener, ITestListener {
+
+    private final ThreadLocal<Held> held = new ThreadLocal<>();
+    private final Set<Held> allHeld = ConcurrentHashMap.newKeySet();
+
+    /** The permit held by the test running on a thread. */
+    private static final class Held {
+
+        private final String lane;
+        private final Semaphore permits;
+        private final ITestContext context;
+        private boolean testInvoked;
+
+        private Held(String lane, Semaphore permits, ITestContext context) {
+            this.lane = lane;
+            this.permits = permits;
+            this.context = context;
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!ConcurrencyLanes.isEnabled()) {
+            return;
+        }
+        ITestNGMethod testNgMethod = method.getTestMethod();
+        Optional<String> classLane = ConcurrencyLanes.classLaneOf(testNgMethod.getTestClass().getRealClass());
+        if (method.isConfigurationMethod() && testNgMethod.isBeforeMethodConfiguration()) {
+            hold(classLane, testResult.getTestContext());
+        } else if (method.isTestMethod()) {
+            Optional<String> lane = laneOf(testNgMethod);
+            hold(lane.isPresent() ? lane : classLane, testResult.getTestContext());
+            Optional.ofNullable(held.get()).ifPresent(current -> current.testInvoked = true);
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        // the configuration methods after a failed one are skipped without telling listeners
+        if (method.isConfigurationMethod() && testResult.getStatus() == ITestResult.FAILURE) {
+            release();
+        }
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        // the permit is taken when the first method of the test is invoked
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        release();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        release();
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        release();
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        release();
+    }
+
+    @Override
+    public void onStart(ITestContext context) {
+        // permits are only taken by tests
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        allHeld.stream()
+                .filter(h -> h.context == context)
+                .forEach(this::release);
+    }
+
+    /**
+     * Takes a permit of the lane, if any, unless this thread's test already holds one.
+     * A permit still held from a previous test on this thread, e.g. if no result was
+     * reported for it, is released first.
+     */
+    private void hold(Optional<String> lane, ITestContext context) {
+        Held current = held.get();
+        if (current != null && (current.testInvoked || !lane.equals(Optional.of(current.lane)))) {
+            release();
+            current = null;
+        }
+        if (current == null) {
+            lane.ifPresent(l -> ConcurrencyLanes.acquireLane(l).ifPresent(permits -> {
+                Held taken = new Held(l, permits, context);
+                allHeld.add(taken);
+                held.set(taken);
+            }));
+        }
+    }
+
+    private void release() {
+        Held current = held.get();
+        if (current != null) {
+            held.remove();
+            release(current);
+        }
+    }
+
+    private void release(Held taken) {
+        // only the first release of a permit returns it, whichever thread it is on
+        if (allHeld.remove(taken)) {
+            taken.permits.release();
+        }
+    }
+
+    private static Optional<String> laneOf(ITestNGMethod method) {
+        return TestIdUtils.getIssueOrTmsLinkValue(method.getConstructorOrMethod().getMethod())
+                .flatMap(ConcurrencyLanes::laneOf);
+    }
+}
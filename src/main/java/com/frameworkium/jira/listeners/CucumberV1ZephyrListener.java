@@ -4,13 +4,19 @@ import cucumber.runtime.CucumberException;
 import gherkin.formatter.Formatter;
 import gherkin.formatter.Reporter;
 import gherkin.formatter.model.*;
-import com.frameworkium.jira.zapi.Execution;
+import com.frameworkium.jira.events.JiraEvents;
+import com.frameworkium.jira.events.ListenerCallback;
+import com.frameworkium.jira.zapi.StepResults;
+import com.frameworkium.jira.zapi.ZapiResults;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import static com.frameworkium.jira.JiraConfig.ZapiStatus.ZAPI_STATUS_BLOCKED;
 import static com.frameworkium.jira.JiraConfig.ZapiStatus.ZAPI_STATUS_FAIL;
 import static com.frameworkium.jira.JiraConfig.ZapiStatus.ZAPI_STATUS_PASS;
 import static com.frameworkium.jira.JiraConfig.ZapiStatus.ZAPI_STATUS_WIP;
@@ -21,6 +27,9 @@ public class CucumberV1ZephyrListener implements Formatter, Reporter {
     private Boolean updateTCMStatus = true;
     private int scnStepBrokenCount = 0;
     private Throwable latestError;
+    private final List<StepResults.Step> stepResults = new ArrayList<>();
+    // steps are formatted, background then scenario, before their results are reported
+    private final Deque<String> stepNames = new ArrayDeque<>();
 
     @Override
     public void syntaxError(String s, String s1, List<String> list, String s2, Integer integer) {}
@@ -42,17 +51,24 @@ public class CucumberV1ZephyrListener implements Formatter, Reporter {
 
     @Override
     public void startOfScenarioLifeCycle(Scenario scenario) {
-        scnStepBrokenCount = 0;
-
-        //Update Zephyr with scen's test case = WIP
-        if (updateTCMStatus) {
-            updateTCMStatus(getTestCaseId(scenario), ZAPI_STATUS_WIP, "");
+        ListenerCallback span = callback("startOfScenarioLifeCycle", scenario.getName());
+        try {
+            scnStepBrokenCount = 0;
+            stepResults.clear();
+            stepNames.clear();
+
+            //Update Zephyr with scen's test case = WIP
+            if (updateTCMStatus) {
+                updateTCMStatus(getTestCaseId(scenario), ZAPI_STATUS_WIP, "");
+            }
+        } finally {
+            span.close();
         }
     }
 
 
     private List<String> getTestCaseId(Scenario scenario) {
-        return retrieveTagStream(scenario.getTags(), "TestCaseId")
+        return TestCaseIdTags.testCaseIds(scenario.getTags())
                 .collect(Collectors.toList());
     }
 
@@ -60,20 +76,30 @@ public class CucumberV1ZephyrListener implements Formatter, Reporter {
         final String updatedComment = "Updated by Cucumber Zephyr Listener\n" + comment;
         testCaseIds.stream()
                 .filter(StringUtils::isNotBlank)
-                .map(Execution::new)
-                .forEach(ex -> ex.update(status, updatedComment));
+                .forEach(testCaseId -> ZapiResults.report(testCaseId, status, updatedComment));
     }
 
     @Override
     public void endOfScenarioLifeCycle(Scenario scenario) {
-        // Update Zephyr with scen's test result
-        if (updateTCMStatus) {
-            final List<String> testCaseIds = getTestCaseId(scenario);
-            if (scnStepBrokenCount > 0) {
-                updateTCMStatus(testCaseIds, ZAPI_STATUS_FAIL, latestError.getLocalizedMessage());
-            } else {
-                updateTCMStatus(testCaseIds, ZAPI_STATUS_PASS, "");
+        ListenerCallback span = callback("endOfScenarioLifeCycle", scenario.getName());
+        try {
+            // Update Zephyr with scen's test result
+            if (updateTCMStatus) {
+                final List<String> testCaseIds = getTestCaseId(scenario);
+                final int status;
+                if (scnStepBrokenCount > 0) {
+                    status = ZAPI_STATUS_FAIL;
+                    updateTCMStatus(testCaseIds, status, latestError.getLocalizedMessage());
+                } else {
+                    status = ZAPI_STATUS_PASS;
+                    updateTCMStatus(testCaseIds, status, "");
+                }
+                testCaseIds.stream()
+                        .filter(StringUtils::isNotBlank)
+                        .forEach(testCaseId -> StepResults.report(testCaseId, status, stepResults));
             }
+        } finally {
+            span.close();
         }
     }
 
@@ -81,10 +107,25 @@ public class CucumberV1ZephyrListener implements Formatter, Reporter {
     public void background(Background background) {}
 
     @Override
-    public void step(Step step) {}
+    public void step(Step step) {
+        if (StepResults.isEnabled()) {
+            stepNames.add(step.getName());
+        }
+    }
 
     @Override
-    public void done() {}
+    public void done() {
+        ListenerCallback span = callback("done", null);
+        try {
+            ZapiResults.finish();
+        } finally {
+            span.close();
+        }
+    }
+
+    private ListenerCallback callback(String callback, String scenarioName) {
+        return JiraEvents.callback(getClass().getSimpleName(), callback, scenarioName);
+    }
 
     @Override
     public void close() {}
@@ -104,6 +145,10 @@ public class CucumberV1ZephyrListener implements Formatter, Reporter {
     @Override
     public void result(Result result) {
         String status = result.getStatus();
+        if (StepResults.isEnabled()) {
+            stepResults.add(new StepResults.Step(
+                    stepNames.poll(), getZapiStepStatus(status), result.getErrorMessage()));
+        }
         if (isNotSkipped(status) && resultIsBroken(status)) {
             scnStepBrokenCount++;
             latestError = result.getError();
@@ -113,6 +158,18 @@ public class CucumberV1ZephyrListener implements Formatter, Reporter {
         }
     }
 
+    private int getZapiStepStatus(String status) {
+        switch (status) {
+            case "passed":
+                return ZAPI_STATUS_PASS;
+            case "failed":
+                return ZAPI_STATUS_FAIL;
+            default:
+                // skipped, pending or undefined
+                return ZAPI_STATUS_BLOCKED;
+        }
+    }
+
     private boolean isNotSkipped(String status) {
         return "skipped".equals(status);
     }
@@ -128,16 +185,4 @@ public class CucumberV1ZephyrListener implements Formatter, Reporter {
     @Override
     public void write(String s) {}
 
-    private Stream<String> retrieveTagStream(List<Tag> tags, String tagName) {
-        final String tagSearch = "@" + tagName + "(";
-        return tags.stream()
-                .map(Tag::getName)
-                .filter(name -> name.startsWith(tagSearch))
-                .map(name -> name
-                        .replace(tagSearch, "")
-                        .replace(")", "")
-                        .trim()
-                        .replaceAll("^\"|\"$", ""));
-    }
-
 }
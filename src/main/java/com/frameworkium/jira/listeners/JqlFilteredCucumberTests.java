@@ -0,0 +1,72 @@
+package com.frameworkium.jira.listeners;
+
+import com.frameworkium.jira.api.JqlSelection;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import cucumber.api.testng.CucumberFeatureWrapper;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberTagStatement;
+import gherkin.formatter.model.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.annotations.DataProvider;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static com.frameworkium.base.properties.Property.JIRA_URL;
+import static com.frameworkium.base.properties.Property.JQL_QUERY;
+
+/**
+ * The Cucumber equivalent of {@link MethodInterceptor}: only the scenarios whose
+ * {@code @TestCaseId(KEY)} tag, or their feature's, is selected by the JQL query are run.
+ *
+ * <p>Extend this instead of {@link AbstractTestNGCucumberTests}.
+ */
+public abstract class JqlFilteredCucumberTests extends AbstractTestNGCucumberTests {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    @Override
+    @DataProvider
+    public Object[][] features() {
+        Object[][] features = super.features();
+        if (!JQL_QUERY.isSpecified() || !JIRA_URL.isSpecified()) {
+            // Can't run the JQL without both JIRA_URL and JQL_QUERY
+            return features;
+        }
+        logger.info("Filtering specified scenarios to run with JQL query results");
+
+        // usually already fetched by the JqlPrefetchListener
+        Set<String> selected = new HashSet<>(JqlSelection.getKeys(JQL_QUERY.getValue()));
+
+        Object[][] filtered = Arrays.stream(features)
+                .filter(feature -> retainSelected(
+                        ((CucumberFeatureWrapper) feature[0]).getCucumberFeature(), selected))
+                .toArray(Object[][]::new);
+
+        logger.info("Running {} scenarios specified by JQL query", Arrays.stream(filtered)
+                .mapToInt(feature -> ((CucumberFeatureWrapper) feature[0])
+                        .getCucumberFeature().getFeatureElements().size())
+                .sum());
+        return filtered;
+    }
+
+    /**
+     * Removes the scenarios which are not selected from the feature.
+     *
+     * @return whether any scenarios remain to be run
+     */
+    private static boolean retainSelected(CucumberFeature feature, Set<String> selected) {
+        List<Tag> featureTags = feature.getGherkinFeature().getTags();
+        List<CucumberTagStatement> scenarios = feature.getFeatureElements();
+        scenarios.removeIf(scenario ->
+                Stream.concat(
+                        TestCaseIdTags.testCaseIds(featureTags),
+                        TestCaseIdTags.testCaseIds(scenario.getGherkinModel().getTags()))
+                        .noneMatch(selected::contains));
+        return !scenarios.isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package com.frameworkium.jira.listeners;
+
+import com.frameworkium.jira.api.JqlSelection;
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+import static com.frameworkium.base.properties.Property.JIRA_URL;
+import static com.frameworkium.base.properties.Property.JQL_QUERY;
+
+/**
+ * Starts the JQL search used by {@link MethodInterceptor} before TestNG scans
+ * the test classes, so the search runs in parallel with TestNG's start-up.
+ *
+ * <p>Suite alteration listeners run before any test classes are loaded,
+ * {@link #onStart(ISuite)} is a fallback for when this is not registered as one.
+ */
+public class JqlPrefetchListener implements IAlterSuiteListener, ISuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        prefetch();
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        prefetch();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {}
+
+    private void prefetch() {
+        if (JQL_QUERY.isSpecified() && JIRA_URL.isSpecified()) {
+            JqlSelection.prefetch(JQL_QUERY.getValue());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.frameworkium.jira.listeners;
 
-import com.frameworkium.jira.api.SearchIssues;
+import com.frameworkium.jira.api.JqlSelection;
+import com.frameworkium.jira.concurrent.ConcurrencyLanes;
 import com.frameworkium.reporting.allure.TestIdUtils;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.testng.IMethodInstance;
@@ -9,12 +11,23 @@ import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
 
 import java.lang.reflect.Method;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
 
 import static com.frameworkium.base.properties.Property.JIRA_URL;
 import static com.frameworkium.base.properties.Property.JQL_QUERY;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 public class MethodInterceptor implements IMethodInterceptor {
 
@@ -33,12 +46,17 @@ public class MethodInterceptor implements IMethodInterceptor {
         if (JQL_QUERY.isSpecified() && JIRA_URL.isSpecified()) {
             logger.info("Filtering specified tests to run with JQL query results");
 
+            // Cucumber runners have no test ID, their scenarios are filtered by JqlFilteredCucumberTests
+            Map<Boolean, List<IMethodInstance>> byIsCucumber = methodsToBeFiltered.stream()
+                    .collect(partitioningBy(MethodInterceptor::isCucumberRunner));
+            methodsToBeFiltered = byIsCucumber.get(false);
+
             List<IMethodInstance> methodsWithTestIDs = methodsToBeFiltered.stream()
                     .filter(m -> TestIdUtils.getIssueOrTmsLinkValue(m).isPresent())
                     .collect(toList());
 
-            List<String> testIDsFromJQL =
-                    new SearchIssues(JQL_QUERY.getValue()).getKeys();
+            // usually already fetched by the JqlPrefetchListener
+            List<String> testIDsFromJQL = JqlSelection.getKeys(JQL_QUERY.getValue());
 
             List<IMethodInstance> methodsToRun = methodsWithTestIDs.stream()
                     .filter(m -> testIDsFromJQL.contains(
@@ -48,13 +66,68 @@ public class MethodInterceptor implements IMethodInterceptor {
             logTestMethodInformation(
                     methodsToBeFiltered, methodsWithTestIDs, methodsToRun);
 
-            return methodsToRun;
+            List<IMethodInstance> toRun = new ArrayList<>(byIsCucumber.get(true));
+            toRun.addAll(ConcurrencyLanes.isEnabled()
+                    ? assignLanes(methodsToRun, JqlSelection.getLanes(JQL_QUERY.getValue()))
+                    : methodsToRun);
+            return toRun;
         } else {
             // Can't run the JQL without both JIRA_URL and JQL_QUERY
             return methodsToBeFiltered;
         }
     }
 
+    /**
+     * Assigns each method to its issue's concurrency lane, if any, and spreads each lane's
+     * methods evenly through the run, so workers seldom wait for a lane.
+     */
+    private List<IMethodInstance> assignLanes(
+            List<IMethodInstance> methodsToRun, Map<String, String> lanesByIssue) {
+
+        lanesByIssue.forEach(ConcurrencyLanes::assign);
+        Map<String, List<IMethodInstance>> byLane = methodsToRun.stream()
+                .collect(groupingBy(m -> laneOf(m, lanesByIssue), LinkedHashMap::new, toList()));
+
+        // a class's tests can take their permit before its @BeforeMethods only if they share a lane
+        methodsToRun.stream()
+                .collect(groupingBy(m -> m.getMethod().getTestClass().getRealClass(),
+                        mapping(m -> laneOf(m, lanesByIssue), toSet())))
+                .forEach((testClass, lanes) -> {
+                    if (lanes.size() == 1 && !lanes.contains("")) {
+                        ConcurrencyLanes.assignClass(testClass, lanes.iterator().next());
+                    }
+                });
+
+        logger.info("Running {} tests in concurrency lanes {}",
+                methodsToRun.size() - byLane.getOrDefault("", emptyList()).size(),
+                new TreeSet<>(lanesByIssue.values()));
+
+        List<Map.Entry<Double, IMethodInstance>> spread = new ArrayList<>();
+        byLane.values().forEach(methods -> spread.addAll(spacedOut(methods)));
+        spread.sort(Map.Entry.comparingByKey());
+        return spread.stream().map(Map.Entry::getValue).collect(toList());
+    }
+
+    /**
+     * @return the method's lane, or an empty string if it has none
+     */
+    private static String laneOf(IMethodInstance method, Map<String, String> lanesByIssue) {
+        return lanesByIssue.getOrDefault(TestIdUtils.getIssueOrTmsLinkValue(method).orElse(""), "");
+    }
+
+    /**
+     * @return each method with its position, between 0 and 1, when spaced out evenly
+     */
+    private static List<Map.Entry<Double, IMethodInstance>> spacedOut(List<IMethodInstance> methods) {
+        return IntStream.range(0, methods.size())
+                .mapToObj(i -> new SimpleImmutableEntry<>((i + 0.5) / methods.size(), methods.get(i)))
+                .collect(toList());
+    }
+
+    private static boolean isCucumberRunner(IMethodInstance method) {
+        return AbstractTestNGCucumberTests.class.isAssignableFrom(method.getMethod().getRealClass());
+    }
+
     private void logTestMethodInformation(
             List<IMethodInstance> methodsPreFiltering,
             List<IMethodInstance> methodsWithTestIDs,
@@ -0,0 +1,78 @@
+package com.frameworkium.jira.listeners;
+
+import com.frameworkium.jira.sinks.ResultDispatcher;
+import com.frameworkium.reporting.allure.TestIdUtils;
+import org.testng.ITestNGMethod;
+
+import java.lang.reflect.Method;
+
+import static com.frameworkium.base.properties.Property.BROWSER;
+import static com.frameworkium.base.properties.Property.CAPTURE_URL;
+import static java.util.Objects.isNull;
+
+/**
+ * How the results of one test method are reported, resolved once per method
+ * rather than on every listener callback. The result sinks which are enabled
+ * are the same for every method so are held by the {@link ResultDispatcher}.
+ */
+final class ReportingPlan {
+
+    /** The value of the method's @Issue or @TestCaseId annotation, empty if neither is present. */
+    final String issueOrTestCaseId;
+    final String testName;
+
+    private ReportingPlan(String issueOrTestCaseId, String testName) {
+        this.issueOrTestCaseId = issueOrTestCaseId;
+        this.testName = testName;
+    }
+
+    /**
+     * {@see TestIdUtils#getIssueOrTestCaseIdValue(Method)}
+     */
+    static ReportingPlan compile(ITestNGMethod testMethod) {
+        Method method = testMethod.getConstructorOrMethod().getMethod();
+        return new ReportingPlan(
+                TestIdUtils.getIssueOrTmsLinkValue(method).orElse(""),
+                testMethod.getRealClass().getName() + "." + testMethod.getMethodName());
+    }
+
+    boolean hasIssue() {
+        return !issueOrTestCaseId.isEmpty();
+    }
+
+    /**
+     * @return the parts of a result comment which are the same for every test in the run
+     */
+    static String environmentComment() {
+
+        StringBuilder commentBuilder = new StringBuilder();
+
+        if (!isNull(System.getenv("BUILD_URL"))) {
+            commentBuilder.append("Jenkins build: ")
+                    .append(System.getenv("BUILD_URL"));
+        }
+
+        if (CAPTURE_URL.isSpecified()) {
+            commentBuilder.append("Capture API: ")
+                    .append(CAPTURE_URL.getValue());
+        }
+
+        commentBuilder.append("\nOS: ")
+                .append(getOSInfo());
+
+        if (BROWSER.isSpecified()) {
+            commentBuilder.append("\nbrowser: ")
+                    .append(BROWSER.getValue());
+        }
+
+        return commentBuilder.toString();
+    }
+
+    private static String getOSInfo() {
+        return String.format(
+                "%s - %s (%s)",
+                System.getProperty("os.name"),
+                System.getProperty("os.version"),
+                System.getProperty("os.arch"));
+    }
+}
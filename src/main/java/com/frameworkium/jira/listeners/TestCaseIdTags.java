@@ -0,0 +1,29 @@
+package com.frameworkium.jira.listeners;
+
+import gherkin.formatter.model.Tag;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Reads the issue keys from Cucumber {@code @TestCaseId(KEY)} tags.
+ */
+final class TestCaseIdTags {
+
+    private static final String TAG_PREFIX = "@TestCaseId(";
+
+    private TestCaseIdTags() {
+        // hide default constructor for this util class
+    }
+
+    static Stream<String> testCaseIds(Collection<Tag> tags) {
+        return tags.stream()
+                .map(Tag::getName)
+                .filter(name -> name.startsWith(TAG_PREFIX))
+                .map(name -> name
+                        .replace(TAG_PREFIX, "")
+                        .replace(")", "")
+                        .trim()
+                        .replaceAll("^\"|\"$", ""));
+    }
+}
@@ -1,264 +1,179 @@
 package com.frameworkium.jira.listeners;
 
-import com.frameworkium.base.properties.Property;
-import com.frameworkium.jira.JiraConfig;
-import com.frameworkium.jira.api.JiraTest;
-import com.frameworkium.jira.zapi.Execution;
+import com.frameworkium.jira.events.JiraEvents;
+import com.frameworkium.jira.events.ListenerCallback;
+import com.frameworkium.jira.sinks.ResultDispatcher;
+import com.frameworkium.jira.sinks.ResultStatus;
+import com.frameworkium.jira.sinks.TestResult;
 //import com.google.common.base.Throwables;
-import com.frameworkium.reporting.allure.TestIdUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
 import org.testng.ITestResult;
 
-import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static com.frameworkium.base.properties.Property.CAPTURE_URL;
-import static com.frameworkium.base.properties.Property.BROWSER;
-import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.time.DateUtils.MILLIS_PER_SECOND;
 
 public class TestNgZephyrListener implements ITestListener {
 
     private final Logger logger = LogManager.getLogger();
 
+    private final ResultDispatcher dispatcher = new ResultDispatcher();
+    private final Map<ITestNGMethod, ReportingPlan> plans = new ConcurrentHashMap<>();
+    private volatile String environmentComment;
+
     @Override
     public void onTestStart(ITestResult result) {
 
-        String issueOrTestCaseId = getIssueOrTestCaseIdAnnotation(result);
-        if (issueOrTestCaseId.isEmpty()) {
-            return;
-        }
-
-        String comment = String.format(
-                "Starting %s.%s",
-                result.getTestClass().getName(),
-                result.getMethod().getMethodName());
+        ListenerCallback span = callback("onTestStart", result.getName());
+        try {
+            ReportingPlan plan = getPlan(result);
+            if (!plan.hasIssue()) {
+                return;
+            }
 
-        if (zapiLoggingParamsProvided(result)) {
-            logger.info("Logging WIP to zapi");
-            new Execution(issueOrTestCaseId)
-                    .update(JiraConfig.ZapiStatus.ZAPI_STATUS_WIP, comment);
-        }
-        if (jiraTransitionLoggingParamsProvided(result)) {
-            logger.info("Logging WIP to Jira using issue transitions");
-            moveThroughTransitions(issueOrTestCaseId,
-                    JiraConfig.JiraTransition.JIRA_TRANSITION_WIP);
-            JiraTest.addComment(issueOrTestCaseId, comment);
-        }
-        if (jiraFieldLoggingParamsProvided(result)) {
-            logger.info("Logging WIP to Jira by updating the specified field - "
-                    + Property.JIRA_RESULT_FIELD_NAME.getValue());
-            JiraTest.changeIssueFieldValue(
-                    issueOrTestCaseId,
-                    Property.JIRA_RESULT_FIELD_NAME.getValue(),
-                    JiraConfig.JiraFieldStatus.JIRA_STATUS_WIP);
-            JiraTest.addComment(issueOrTestCaseId, comment);
+            report(plan, ResultStatus.WIP, "Starting " + plan.testName, null);
+        } finally {
+            span.close();
         }
     }
 
-    private void moveThroughTransitions(String issueAnnotation, String[] jiraTransitions) {
-        for (String jiraTransition : jiraTransitions) {
-            try {
-                JiraTest.transitionIssue(issueAnnotation, jiraTransition);
-                logger.debug(
-                        "Performed transition '{}' on '{}'",
-                        jiraTransition,
-                        issueAnnotation);
-            } catch (Exception e) {
-                logger.error(
-                        "Failed to perform transition '{}' on '{}' - maybe not possible given the state?",
-                        jiraTransition,
-                        issueAnnotation);
-            }
+    private void report(ReportingPlan plan, ResultStatus status, String comment, Throwable throwable) {
+        if (dispatcher.hasSinks()) {
+            dispatcher.dispatch(new TestResult(
+                    plan.issueOrTestCaseId, plan.testName, status, comment, throwable));
         }
     }
 
     @Override
     public void onTestSuccess(ITestResult result) {
 
-        String issueOrTestCaseId = getIssueOrTestCaseIdAnnotation(result);
-        if (issueOrTestCaseId.isEmpty()) {
-            return;
-        }
-
-        String comment = "PASS\n" + baseComment(result);
+        ListenerCallback span = callback("onTestSuccess", result.getName());
+        try {
+            ReportingPlan plan = getPlan(result);
+            if (!plan.hasIssue()) {
+                return;
+            }
 
-        if (zapiLoggingParamsProvided(result)) {
-            logger.info("Logging PASS to zapi");
-            new Execution(issueOrTestCaseId)
-                    .update(JiraConfig.ZapiStatus.ZAPI_STATUS_PASS, comment);
-        }
-        if (jiraTransitionLoggingParamsProvided(result)) {
-            logger.info("Logging PASS to Jira using issue transitions");
-            moveThroughTransitions(issueOrTestCaseId,
-                    JiraConfig.JiraTransition.JIRA_TRANSITION_PASS);
-            JiraTest.addComment(issueOrTestCaseId, comment);
-        }
-        if (jiraFieldLoggingParamsProvided(result)) {
-            logger.info("Logging PASS to Jira by updating the specified field - "
-                    + Property.JIRA_RESULT_FIELD_NAME.getValue());
-            JiraTest.changeIssueFieldValue(
-                    issueOrTestCaseId,
-                    Property.JIRA_RESULT_FIELD_NAME.getValue(),
-                    JiraConfig.JiraFieldStatus.JIRA_STATUS_PASS);
-            JiraTest.addComment(issueOrTestCaseId, comment);
+            report(plan, ResultStatus.PASS, "PASS\n" + baseComment(plan, result), null);
+        } finally {
+            span.close();
         }
     }
 
     @Override
     public void onTestFailure(ITestResult result) {
 
-        if (result.getThrowable() instanceof AssertionError) {
-            markAsFailed(result);
-        } else {
-            markAsBlocked(result);
+        ListenerCallback span = callback("onTestFailure", result.getName());
+        try {
+            if (result.getThrowable() instanceof AssertionError) {
+                markAsFailed(result);
+            } else {
+                markAsBlocked(result);
+            }
+        } finally {
+            span.close();
         }
     }
 
     private void markAsFailed(ITestResult result) {
 
-        String issueOrTestCaseId = getIssueOrTestCaseIdAnnotation(result);
-        if (issueOrTestCaseId.isEmpty()) {
+        ReportingPlan plan = getPlan(result);
+        if (!plan.hasIssue()) {
             return;
         }
 
-        String comment = "FAIL\n" + this.baseComment(result);
+        String comment = "FAIL\n" + this.baseComment(plan, result);
 
-        if (zapiLoggingParamsProvided(result)) {
-            logger.info("Logging FAIL to zapi");
-            new Execution(issueOrTestCaseId)
-                    .update(JiraConfig.ZapiStatus.ZAPI_STATUS_FAIL, comment);
-        }
-        if (jiraTransitionLoggingParamsProvided(result)) {
-            logger.info("Logging FAIL to Jira using issue transitions");
-            moveThroughTransitions(issueOrTestCaseId,
-                    JiraConfig.JiraTransition.JIRA_TRANSITION_FAIL);
-            JiraTest.addComment(issueOrTestCaseId, comment);
-        }
-        if (jiraFieldLoggingParamsProvided(result)) {
-            logger.info("Logging FAIL to Jira by updating the specified field - "
-                    + Property.JIRA_RESULT_FIELD_NAME.getValue());
-            JiraTest.changeIssueFieldValue(
-                    issueOrTestCaseId,
-                    Property.JIRA_RESULT_FIELD_NAME.getValue(),
-                    JiraConfig.JiraFieldStatus.JIRA_STATUS_FAIL);
-            JiraTest.addComment(issueOrTestCaseId, comment);
-        }
+        report(plan, ResultStatus.FAIL, comment, result.getThrowable());
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
-        markAsBlocked(result);
+        ListenerCallback span = callback("onTestSkipped", result.getName());
+        try {
+            markAsBlocked(result);
+        } finally {
+            span.close();
+        }
     }
 
     private void markAsBlocked(ITestResult result) {
 
-        String issueOrTestCaseId = getIssueOrTestCaseIdAnnotation(result);
-        if (issueOrTestCaseId.isEmpty()) {
+        ReportingPlan plan = getPlan(result);
+        if (!plan.hasIssue()) {
             return;
         }
 
-        String comment = "BLOCKED\n" + this.baseComment(result);
+        String comment = "BLOCKED\n" + this.baseComment(plan, result);
 
-        if (zapiLoggingParamsProvided(result)) {
-            logger.info("Logging BLOCKED to zapi");
-            new Execution(issueOrTestCaseId)
-                    .update(JiraConfig.ZapiStatus.ZAPI_STATUS_BLOCKED, comment);
-        }
-        if (jiraTransitionLoggingParamsProvided(result)) {
-            logger.info("Logging BLOCKED to Jira using issue transitions");
-            moveThroughTransitions(issueOrTestCaseId,
-                    JiraConfig.JiraTransition.JIRA_TRANSITION_BLOCKED);
-            JiraTest.addComment(issueOrTestCaseId, comment);
-        }
-        if (jiraFieldLoggingParamsProvided(result)) {
-            logger.info("Logging BLOCKED to Jira by updating the specified field - "
-                    + Property.JIRA_RESULT_FIELD_NAME.getValue());
-            JiraTest.changeIssueFieldValue(
-                    issueOrTestCaseId,
-                    Property.JIRA_RESULT_FIELD_NAME.getValue(),
-                    JiraConfig.JiraFieldStatus.JIRA_STATUS_BLOCKED);
-            JiraTest.addComment(issueOrTestCaseId, comment);
-        }
+        report(plan, ResultStatus.BLOCKED, comment, result.getThrowable());
     }
 
     @Override
     public void onTestFailedButWithinSuccessPercentage(ITestResult result) {}
 
+    /**
+     * Compiles the reporting plan of every test method up front, so that
+     * each callback only has to look its plan up, then starts the sinks.
+     */
     @Override
-    public void onStart(ITestContext context) {}
-
-    @Override
-    public void onFinish(ITestContext context) {}
-
-    private Boolean zapiLoggingParamsProvided(ITestResult result) {
-        return Property.JIRA_URL.isSpecified()
-                && Property.RESULT_VERSION.isSpecified()
-                && !getIssueOrTestCaseIdAnnotation(result).isEmpty();
+    public void onStart(ITestContext context) {
+        ListenerCallback span = callback("onStart", context.getName());
+        try {
+            environmentComment = ReportingPlan.environmentComment();
+            for (ITestNGMethod method : context.getAllTestMethods()) {
+                plans.computeIfAbsent(method, ReportingPlan::compile);
+            }
+            if (dispatcher.hasSinks()) {
+                dispatcher.start(plans.values().stream()
+                        .filter(ReportingPlan::hasIssue)
+                        .map(plan -> plan.issueOrTestCaseId)
+                        .distinct()
+                        .collect(toList()));
+            }
+        } finally {
+            span.close();
+        }
     }
 
-    private Boolean jiraTransitionLoggingParamsProvided(ITestResult result) {
-        return Property.JIRA_URL.isSpecified()
-                && Property.JIRA_RESULT_TRANSITION.isSpecified()
-                && !getIssueOrTestCaseIdAnnotation(result).isEmpty();
+    @Override
+    public void onFinish(ITestContext context) {
+        ListenerCallback span = callback("onFinish", context.getName());
+        try {
+            dispatcher.finish();
+        } finally {
+            span.close();
+        }
     }
 
-    private Boolean jiraFieldLoggingParamsProvided(ITestResult result) {
-        return Property.JIRA_URL.isSpecified()
-                && Property.JIRA_RESULT_FIELD_NAME.isSpecified()
-                && !getIssueOrTestCaseIdAnnotation(result).isEmpty();
+    private ListenerCallback callback(String callback, String testName) {
+        return JiraEvents.callback(getClass().getSimpleName(), callback, testName);
     }
 
-    /**
-     * If neither are specified then the empty string will be returned.
-     * {@see TestIdUtils#getIssueOrTestCaseIdValue(Method)}
-     *
-     * @return the value of either the @Issue or @TestCaseId annotation for the provided test result.
-     */
-    private String getIssueOrTestCaseIdAnnotation(ITestResult result) {
-        Method method = result.getMethod().getConstructorOrMethod().getMethod();
-        return TestIdUtils.getIssueOrTmsLinkValue(method).orElse("");
+    private ReportingPlan getPlan(ITestResult result) {
+        return plans.computeIfAbsent(result.getMethod(), ReportingPlan::compile);
     }
 
-    private String getOSInfo() {
-        return String.format(
-                "%s - %s (%s)",
-                System.getProperty("os.name"),
-                System.getProperty("os.version"),
-                System.getProperty("os.arch"));
-    }
+    private String baseComment(ReportingPlan plan, ITestResult result) {
 
-    private String baseComment(ITestResult result) {
+        if (environmentComment == null) {
+            environmentComment = ReportingPlan.environmentComment();
+        }
 
         StringBuilder commentBuilder = new StringBuilder();
 
         commentBuilder.append("Test: ")
-                .append(result.getTestClass().getName())
-                .append(".")
-                .append(result.getMethod().getMethodName())
+                .append(plan.testName)
                 .append("\nDuration: ")
                 .append(((result.getEndMillis() - result.getStartMillis()) / MILLIS_PER_SECOND))
-                .append("seconds");
-
-        if (!isNull(System.getenv("BUILD_URL"))) {
-            commentBuilder.append("Jenkins build: ")
-                    .append(System.getenv("BUILD_URL"));
-        }
-
-        if (CAPTURE_URL.isSpecified()) {
-            commentBuilder.append("Capture API: ")
-                    .append(CAPTURE_URL.getValue());
-        }
-
-        commentBuilder.append("\nOS: ")
-                .append(getOSInfo());
-
-        if (Property.BROWSER.isSpecified()){
-            commentBuilder.append("\nbrowser: ")
-                    .append(BROWSER.getValue());
-        }
+                .append("seconds")
+                .append(environmentComment);
 
         //todo sort this used a dependency just for this line
 //        if (!isNull(result.getThrowable())) {
@@ -0,0 +1,32 @@
+package com.frameworkium.jira.listeners;
+
+import com.frameworkium.jira.auth.JiraSession;
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * Warms up the connection to JIRA, and authenticates, in parallel with TestNG's
+ * start-up, so the first result is not delayed by it.
+ *
+ * <p>As with {@link JqlPrefetchListener}, {@link #onStart(ISuite)} is a fallback
+ * for when this is not registered as a suite alteration listener.
+ */
+public class WarmUpListener implements IAlterSuiteListener, ISuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        JiraSession.warmUp();
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        JiraSession.warmUp();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {}
+}
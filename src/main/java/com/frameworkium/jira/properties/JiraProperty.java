@@ -0,0 +1,123 @@
+package com.frameworkium.jira.properties;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Settings specific to frameworkium-jira which are not part of
+ * {@link com.frameworkium.base.properties.Property}.
+ *
+ * <p>Each value is read from the system property of the same name,
+ * e.g. {@code -DjiraMetadataCacheDir=target/jira-cache}.
+ */
+public enum JiraProperty {
+
+    /** Directory of the on-disk issue and execution metadata cache. */
+    METADATA_CACHE_DIR("jiraMetadataCacheDir"),
+
+    /** How result comments are written, one of event (default), upsert or consolidated. */
+    COMMENT_MODE("jiraCommentMode"),
+
+    /** If true, text attachments such as logs and HAR files are gzipped before upload. */
+    COMPRESS_ATTACHMENTS("jiraCompressAttachments"),
+
+    /**
+     * Seconds for which a JQL selection is cached on disk and used without any request to JIRA.
+     * Not used if {@link #CONCURRENCY_FIELD} is specified, as lanes are not cached.
+     */
+    JQL_CACHE_TTL("jiraJqlCacheTtl"),
+
+    /** How results are written to Zephyr, one of live (default), deferred, spool or reconcile. */
+    ZAPI_REPORTING_MODE("zapiReportingMode"),
+
+    /** Directory results are written to when they are not sent to JIRA immediately. */
+    RESULTS_SPOOL_DIR("jiraResultsSpoolDir"),
+
+    /** Maximum number of attachment uploads in flight at once, defaults to 2. */
+    UPLOAD_CONCURRENCY("jiraUploadConcurrency"),
+
+    /** JQL selecting the known defects whose failure signature labels failed tests are matched against. */
+    DEFECT_JQL("jiraDefectJql"),
+
+    /** Name of the issue link type used to link a failed test to a known defect, defaults to Relates. */
+    DEFECT_LINK_TYPE("jiraDefectLinkType"),
+
+    /** Milliseconds for which field, transition and execution searches are reused, defaults to 0. */
+    READ_CACHE_TTL_MILLIS("jiraReadCacheTtlMillis"),
+
+    /** Milliseconds a test waits for each result sink to report, defaults to 60000. */
+    SINK_TIMEOUT_MILLIS("jiraSinkTimeoutMillis"),
+
+    /** Connect and read timeout, in milliseconds, of every request to JIRA. */
+    REQUEST_TIMEOUT_MILLIS("jiraRequestTimeoutMillis"),
+
+    /** Milliseconds reporting to JIRA may add to the whole run. */
+    REPORTING_BUDGET_MILLIS("jiraReportingBudgetMillis"),
+
+    /** Milliseconds reporting to JIRA may add to each test. */
+    REPORTING_BUDGET_PER_TEST_MILLIS("jiraReportingBudgetPerTestMillis"),
+
+    /** If true, tests without an execution in the result version are added to the cycle at suite start. */
+    CREATE_MISSING_EXECUTIONS("zapiCreateMissingExecutions"),
+
+    /** The HTTP client requests are sent with, {@code apache} (default) or {@code jdk} for HTTP/2 on Java 11+. */
+    HTTP_TRANSPORT("jiraHttpTransport"),
+
+    /** The number of pages of a ZQL search which are fetched at once, defaults to 4. */
+    SEARCH_CONCURRENCY("zapiSearchConcurrency"),
+
+    /** Versions, each optionally with {@code |cycle}, separated by {@code ;}, which results are written to. */
+    RESULT_TARGETS("zapiResultTargets"),
+
+    /** If true, the Cucumber listener writes the result of each step to the ZAPI step results. */
+    ZAPI_STEP_RESULTS("zapiStepResults"),
+
+    /** How requests authenticate, {@code basic} (default) or {@code session} to log in once per run. */
+    AUTH_MODE("jiraAuthMode"),
+
+    /** File JIRA traffic is recorded to or replayed from, see {@link #CASSETTE_MODE}. */
+    CASSETTE("jiraCassette"),
+
+    /** Whether the {@link #CASSETTE} is written, {@code record}, or read instead of JIRA, {@code replay}. */
+    CASSETTE_MODE("jiraCassetteMode"),
+
+    /** Label or field of the JQL selected issues naming their concurrency lane, e.g. labels. */
+    CONCURRENCY_FIELD("jiraConcurrencyField"),
+
+    /** Sizes of the {@code pool:<name>} concurrency lanes, e.g. {@code payments=2,search=4}. */
+    POOL_SIZES("jiraPoolSizes"),
+
+    /** Milliseconds a test waits for a permit of its concurrency lane before running anyway, defaults to 1800000. */
+    LANE_TIMEOUT_MILLIS("jiraLaneTimeoutMillis"),
+
+    /**
+     * Maximum requests in flight per endpoint class on Java 21+, e.g. {@code search=8,attachment=4};
+     * the classes are search, attachment, zapi and jira.
+     */
+    ENDPOINT_CONCURRENCY("jiraEndpointConcurrency");
+
+    private final String value;
+
+    JiraProperty(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return System.getProperty(value);
+    }
+
+    public boolean isSpecified() {
+        return StringUtils.isNotBlank(getValue());
+    }
+
+    public boolean getBoolValue() {
+        return Boolean.parseBoolean(getValue());
+    }
+
+    public int getIntValue(int defaultValue) {
+        return isSpecified() ? Integer.parseInt(getValue().trim()) : defaultValue;
+    }
+
+    public long getLongValue(long defaultValue) {
+        return isSpecified() ? Long.parseLong(getValue().trim()) : defaultValue;
+    }
+}
@@ -0,0 +1,37 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.api.JiraTest;
+import com.frameworkium.jira.api.RunComments;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reports results by updating the {@link Property#JIRA_RESULT_FIELD_NAME} field and adding a comment.
+ */
+public class JiraFieldResultSink implements ResultSink {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    @Override
+    public boolean isEnabled() {
+        return Property.JIRA_URL.isSpecified()
+                && Property.JIRA_RESULT_FIELD_NAME.isSpecified();
+    }
+
+    @Override
+    public void report(TestResult result) {
+        logger.info("Logging {} to Jira by updating the specified field - {}",
+                result.getStatus(), Property.JIRA_RESULT_FIELD_NAME.getValue());
+        JiraTest.changeIssueFieldValue(
+                result.getIssueKey(),
+                Property.JIRA_RESULT_FIELD_NAME.getValue(),
+                result.getStatus().getJiraFieldStatus());
+        RunComments.add(result.getIssueKey(), result.getComment());
+    }
+
+    @Override
+    public void finish() {
+        RunComments.flush();
+    }
+}
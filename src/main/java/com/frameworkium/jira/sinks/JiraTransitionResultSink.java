@@ -0,0 +1,54 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.api.JiraTest;
+import com.frameworkium.jira.api.RunComments;
+import com.frameworkium.jira.concurrent.IssueLocks;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reports results by moving the issue through workflow transitions and adding a comment.
+ */
+public class JiraTransitionResultSink implements ResultSink {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    @Override
+    public boolean isEnabled() {
+        return Property.JIRA_URL.isSpecified()
+                && Property.JIRA_RESULT_TRANSITION.isSpecified();
+    }
+
+    @Override
+    public void report(TestResult result) {
+        logger.info("Logging {} to Jira using issue transitions", result.getStatus());
+        moveThroughTransitions(result.getIssueKey(), result.getStatus().getJiraTransitions());
+        RunComments.add(result.getIssueKey(), result.getComment());
+    }
+
+    @Override
+    public void finish() {
+        RunComments.flush();
+    }
+
+    private void moveThroughTransitions(String issueAnnotation, String[] jiraTransitions) {
+        // a sequence of transitions must not interleave with another test's for the same issue
+        IssueLocks.withLock(issueAnnotation, () -> {
+            for (String jiraTransition : jiraTransitions) {
+                try {
+                    JiraTest.transitionIssue(issueAnnotation, jiraTransition);
+                    logger.debug(
+                            "Performed transition '{}' on '{}'",
+                            jiraTransition,
+                            issueAnnotation);
+                } catch (Exception e) {
+                    logger.error(
+                            "Failed to perform transition '{}' on '{}' - maybe not possible given the state?",
+                            jiraTransition,
+                            issueAnnotation);
+                }
+            }
+        });
+    }
+}
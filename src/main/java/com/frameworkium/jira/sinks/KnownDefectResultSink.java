@@ -0,0 +1,23 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.jira.api.KnownDefects;
+import com.frameworkium.jira.properties.JiraProperty;
+
+/**
+ * Links failed and blocked tests to the known defect with the same failure signature,
+ * see {@link KnownDefects} and {@link JiraProperty#DEFECT_JQL}.
+ */
+public class KnownDefectResultSink implements ResultSink {
+
+    @Override
+    public boolean isEnabled() {
+        return KnownDefects.isEnabled();
+    }
+
+    @Override
+    public void report(TestResult result) {
+        if (result.getStatus() == ResultStatus.FAIL || result.getStatus() == ResultStatus.BLOCKED) {
+            KnownDefects.linkKnownDefect(result.getIssueKey(), result.getThrowable());
+        }
+    }
+}
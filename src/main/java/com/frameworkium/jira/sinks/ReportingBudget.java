@@ -0,0 +1,176 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the wall-clock time reporting to JIRA may add to a run, in total with
+ * {@link JiraProperty#REPORTING_BUDGET_MILLIS} and per test with
+ * {@link JiraProperty#REPORTING_BUDGET_PER_TEST_MILLIS}.
+ *
+ * <p>Reporting is timed between {@link #begin()} and {@link #end(long)}. The total is the
+ * wall-clock time during which any thread was reporting, so reports made in parallel are
+ * only counted once; the per test time is what the current thread spent reporting.
+ *
+ * <p>Reporting degrades in stages: once less than a quarter of the total budget is
+ * left, WIP updates, comments and step results are dropped; once a budget is used up,
+ * results for every sink are diverted to the local spool instead of being sent to JIRA
+ * and attachments are dropped.
+ */
+public final class ReportingBudget {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final double DEGRADED_FRACTION = 0.25;
+
+    // guarded by ReportingBudget.class
+    private static long spentMillis;
+    private static int reporting;
+    private static long reportingSince;
+
+    /** [0] the time the current thread spent reporting this test, [1] how deeply its reporting is nested */
+    private static final ThreadLocal<long[]> thisThread = ThreadLocal.withInitial(() -> new long[2]);
+
+    private static final AtomicInteger droppedWip = new AtomicInteger();
+    private static final AtomicInteger droppedComments = new AtomicInteger();
+    private static final AtomicInteger droppedOther = new AtomicInteger();
+    private static final AtomicInteger diverted = new AtomicInteger();
+
+    private ReportingBudget() {
+        // hide default constructor for this util class
+    }
+
+    public static boolean isLimited() {
+        return JiraProperty.REPORTING_BUDGET_MILLIS.isSpecified();
+    }
+
+    /** @return the time left in the total budget, {@link Long#MAX_VALUE} if unlimited */
+    public static long remainingMillis() {
+        return isLimited()
+                ? JiraProperty.REPORTING_BUDGET_MILLIS.getLongValue(0) - spentMillis()
+                : Long.MAX_VALUE;
+    }
+
+    /** @return whether the total budget is used up */
+    public static boolean isExhausted() {
+        return remainingMillis() <= 0;
+    }
+
+    /** @return whether low priority work, WIP updates and comments, should be dropped */
+    public static boolean isDegraded() {
+        return isLimited()
+                && remainingMillis() < JiraProperty.REPORTING_BUDGET_MILLIS.getLongValue(0) * DEGRADED_FRACTION;
+    }
+
+    /**
+     * Starts timing reporting work on the current thread, which must be followed by
+     * {@link #end(long)} in a finally block. Nested calls are only counted once.
+     *
+     * @return the time the work started
+     */
+    public static long begin() {
+        long now = System.currentTimeMillis();
+        synchronized (ReportingBudget.class) {
+            if (reporting++ == 0) {
+                reportingSince = now;
+            }
+        }
+        thisThread.get()[1]++;
+        return now;
+    }
+
+    /**
+     * Stops timing the reporting work started by {@link #begin()}.
+     *
+     * @param startedAt the value returned by {@link #begin()}
+     */
+    public static void end(long startedAt) {
+        long now = System.currentTimeMillis();
+        synchronized (ReportingBudget.class) {
+            if (--reporting == 0) {
+                spentMillis += now - reportingSince;
+            }
+        }
+        long[] spentThisThread = thisThread.get();
+        if (--spentThisThread[1] == 0) {
+            spentThisThread[0] += now - startedAt;
+        }
+    }
+
+    /** Called when the current thread starts a new test. */
+    static void startTest() {
+        thisThread.get()[0] = 0;
+    }
+
+    /** @return whether the current thread's test may still report to JIRA */
+    static boolean canReport() {
+        return !isExhausted() && remainingThisTestMillis() > 0;
+    }
+
+    /** @return how long the current thread may wait for the result sinks */
+    static long waitMillis(long sinkTimeoutMillis) {
+        return Math.min(sinkTimeoutMillis, Math.min(remainingMillis(), remainingThisTestMillis()));
+    }
+
+    static void dropWip() {
+        droppedWip.incrementAndGet();
+    }
+
+    static void divert() {
+        diverted.incrementAndGet();
+    }
+
+    /**
+     * Counts the dropped comment if reporting is degraded.
+     *
+     * @return whether the comment should be dropped
+     */
+    public static boolean dropComment() {
+        if (isDegraded()) {
+            droppedComments.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts the dropped work, e.g. step results or attachments, if reporting is degraded
+     * or, when it is only to be dropped once the budget is used up, exhausted.
+     *
+     * @param whenDegraded whether the work is dropped as soon as reporting is degraded
+     * @return whether the work should be dropped
+     */
+    public static boolean drop(boolean whenDegraded) {
+        if (whenDegraded ? isDegraded() : isExhausted()) {
+            droppedOther.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public static void logSummary() {
+        if (!isLimited() && !JiraProperty.REPORTING_BUDGET_PER_TEST_MILLIS.isSpecified()) {
+            return;
+        }
+        logger.info("JIRA reporting took {}ms of its {}ms budget; dropped {} WIP updates, "
+                        + "{} comments and {} step results or attachments, diverted {} results to the spool",
+                spentMillis(),
+                isLimited() ? JiraProperty.REPORTING_BUDGET_MILLIS.getValue() : "unlimited",
+                droppedWip.get(), droppedComments.get(), droppedOther.get(), diverted.get());
+    }
+
+    private static synchronized long spentMillis() {
+        return reporting > 0
+                ? spentMillis + System.currentTimeMillis() - reportingSince
+                : spentMillis;
+    }
+
+    private static long remainingThisTestMillis() {
+        return JiraProperty.REPORTING_BUDGET_PER_TEST_MILLIS.isSpecified()
+                ? JiraProperty.REPORTING_BUDGET_PER_TEST_MILLIS.getLongValue(0) - thisThread.get()[0]
+                : Long.MAX_VALUE;
+    }
+}
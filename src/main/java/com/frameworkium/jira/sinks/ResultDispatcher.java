@@ -0,0 +1,196 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.jira.concurrent.JiraExecutors;
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Sends each result to all enabled {@link ResultSink}s concurrently, so a result
+ * takes as long as the slowest sink rather than the sum of all of them.
+ *
+ * <p>Each dispatch waits at most {@link JiraProperty#SINK_TIMEOUT_MILLIS}, or what is left
+ * of the {@link ReportingBudget}, for the sinks. A sink which takes longer is left to finish
+ * in the background. Once the budget is used up, results are diverted to the {@link ResultSpool}
+ * for every sink.
+ *
+ * <p>Results for the same issue are sent in the order they were dispatched: a result is
+ * only sent once every sink has finished with the previous one for its issue, so a WIP
+ * left running in the background can never land after the final result.
+ */
+public class ResultDispatcher {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 60_000;
+
+    private final List<ResultSink> sinks;
+    private final long timeoutMillis;
+    private final Map<String, CompletableFuture<Void>> lastDispatchByIssue = new ConcurrentHashMap<>();
+    private final ResultSpool spool = new ResultSpool();
+
+    /**
+     * Dispatches to the enabled sinks registered with {@link ServiceLoader}.
+     */
+    public ResultDispatcher() {
+        this(loadEnabledSinks());
+    }
+
+    public ResultDispatcher(List<ResultSink> sinks) {
+        this.sinks = new ArrayList<>(sinks);
+        this.timeoutMillis = JiraProperty.SINK_TIMEOUT_MILLIS.getLongValue(DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public static List<ResultSink> loadEnabledSinks() {
+        List<ResultSink> enabled = new ArrayList<>();
+        for (ResultSink sink : ServiceLoader.load(ResultSink.class)) {
+            if (sink.isEnabled()) {
+                enabled.add(sink);
+            }
+        }
+        logger.debug("Reporting results to {}", () -> enabled.stream()
+                .map(sink -> sink.getClass().getSimpleName())
+                .collect(toList()));
+        return enabled;
+    }
+
+    public boolean hasSinks() {
+        return !sinks.isEmpty();
+    }
+
+    /** Calls {@link ResultSink#start(Collection)} on each sink in turn. */
+    public void start(Collection<String> issueKeys) {
+        for (ResultSink sink : sinks) {
+            try {
+                sink.start(issueKeys);
+            } catch (RuntimeException e) {
+                logger.error("{} failed to start", sink.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    public void dispatch(TestResult result) {
+        if (result.getStatus() == ResultStatus.WIP) {
+            ReportingBudget.startTest();
+            if (ReportingBudget.isDegraded()) {
+                ReportingBudget.dropWip();
+                return;
+            }
+        }
+        if (!ReportingBudget.canReport()) {
+            if (result.getStatus() != ResultStatus.WIP) {
+                ReportingBudget.divert();
+                spool.divert(result);
+            }
+            return;
+        }
+
+        long startedAt = ReportingBudget.begin();
+        try {
+            sendToSinks(result, ReportingBudget.waitMillis(timeoutMillis));
+        } finally {
+            ReportingBudget.end(startedAt);
+        }
+    }
+
+    private void sendToSinks(TestResult result, long waitMillis) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+
+        List<CompletableFuture<Void>> reports = new ArrayList<>();
+        CompletableFuture<Void> dispatch = lastDispatchByIssue.compute(result.getIssueKey(), (issue, previous) -> {
+            // a failed previous dispatch has been logged already, it must not stop this one
+            CompletableFuture<Void> after = previous == null
+                    ? CompletableFuture.completedFuture(null)
+                    : previous.exceptionally(e -> null);
+            sinks.forEach(sink -> reports.add(
+                    after.thenRunAsync(() -> report(sink, result), JiraExecutors.background())));
+            return CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0]));
+        });
+        dispatch.whenComplete((ignored, e) -> lastDispatchByIssue.remove(result.getIssueKey(), dispatch));
+
+        for (int i = 0; i < reports.size(); i++) {
+            String sinkName = sinks.get(i).getClass().getSimpleName();
+            try {
+                reports.get(i).get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("{} did not report {} for {} within {}ms, continuing in the background",
+                        sinkName, result.getStatus(), result.getIssueKey(), waitMillis);
+            } catch (ExecutionException e) {
+                logger.error("{} failed to report {} for {}",
+                        sinkName, result.getStatus(), result.getIssueKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Times the sink's work, which may outlive the dispatch, against the budget. */
+    private static void report(ResultSink sink, TestResult result) {
+        long startedAt = ReportingBudget.begin();
+        try {
+            sink.report(result);
+        } finally {
+            ReportingBudget.end(startedAt);
+        }
+    }
+
+    /**
+     * Waits for the dispatches still running in the background, then calls
+     * {@link ResultSink#finish()} on each sink in turn, which writes any deferred results,
+     * then spools any diverted results.
+     */
+    public void finish() {
+        awaitPendingDispatches();
+        long startedAt = ReportingBudget.begin();
+        try {
+            for (ResultSink sink : sinks) {
+                try {
+                    sink.finish();
+                } catch (RuntimeException e) {
+                    logger.error("{} failed to finish", sink.getClass().getSimpleName(), e);
+                }
+            }
+        } finally {
+            ReportingBudget.end(startedAt);
+        }
+        spool.flush(sinks);
+        ReportingBudget.logSummary();
+    }
+
+    /**
+     * Waits, for at most the sink timeout or what is left of the budget, for the sinks to
+     * finish the results left to them in the background, so they are not finished early.
+     */
+    private void awaitPendingDispatches() {
+        CompletableFuture<?>[] pending = lastDispatchByIssue.values().toArray(new CompletableFuture<?>[0]);
+        if (pending.length == 0) {
+            return;
+        }
+        long waitMillis = Math.max(0, Math.min(timeoutMillis, ReportingBudget.remainingMillis()));
+        try {
+            CompletableFuture.allOf(pending).get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("{} issues' results were still being reported after {}ms, finishing without them",
+                    Arrays.stream(pending).filter(dispatch -> !dispatch.isDone()).count(), waitMillis);
+        } catch (ExecutionException e) {
+            logger.warn("Some results left to finish in the background failed to be reported", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
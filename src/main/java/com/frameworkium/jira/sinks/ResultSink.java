@@ -0,0 +1,38 @@
+package com.frameworkium.jira.sinks;
+
+import java.util.Collection;
+
+/**
+ * Somewhere test results are reported to, e.g. Zephyr executions or JIRA issues.
+ *
+ * <p>Implementations are discovered with {@link java.util.ServiceLoader}, so are
+ * registered by listing them in {@code META-INF/services/com.frameworkium.jira.sinks.ResultSink},
+ * and must have a public no-argument constructor. Results are sent to every enabled
+ * sink concurrently, so implementations must be thread safe.
+ */
+public interface ResultSink {
+
+    /**
+     * Called once per run, e.g. to check the required properties are specified.
+     *
+     * @return whether results should be reported to this sink
+     */
+    boolean isEnabled();
+
+    /**
+     * Called before any tests are run, e.g. to resolve what results will be written to up front.
+     *
+     * @param issueKeys the keys of the issues which results may be reported against
+     */
+    default void start(Collection<String> issueKeys) {}
+
+    /**
+     * Reports the result, or start, of a test.
+     */
+    void report(TestResult result);
+
+    /**
+     * Called when a set of tests has finished, to write anything buffered.
+     */
+    default void finish() {}
+}
@@ -0,0 +1,102 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Results a {@link ResultDispatcher} could not send, e.g. once the {@link ReportingBudget}
+ * is used up, which are written to a file in {@link JiraProperty#RESULTS_SPOOL_DIR} with
+ * the sinks they were for and sent to those sinks later by {@link #main(String[])}.
+ *
+ * <p>A result's throwable is not kept, so a spooled failure is not linked to known defects.
+ */
+public final class ResultSpool {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final Queue<TestResult> diverted = new ConcurrentLinkedQueue<>();
+
+    ResultSpool() {}
+
+    void divert(TestResult result) {
+        diverted.add(result);
+    }
+
+    /**
+     * Writes the results diverted since the last call, if any.
+     *
+     * @param sinks the sinks the results were to be sent to
+     */
+    void flush(List<ResultSink> sinks) {
+        JSONArray results = new JSONArray();
+        for (TestResult result = diverted.poll(); result != null; result = diverted.poll()) {
+            results.put(new JSONObject()
+                    .put("issue", result.getIssueKey())
+                    .put("testName", result.getTestName())
+                    .put("status", result.getStatus().name())
+                    .put("comment", result.getComment()));
+        }
+        if (results.length() == 0) {
+            return;
+        }
+
+        JSONObject payload = new JSONObject()
+                .put("sinks", sinks.stream().map(sink -> sink.getClass().getName()).distinct().collect(toList()))
+                .put("results", results);
+        Path spoolDir = Paths.get(JiraProperty.RESULTS_SPOOL_DIR.isSpecified()
+                ? JiraProperty.RESULTS_SPOOL_DIR.getValue()
+                : "target/jira-results");
+        try {
+            Files.createDirectories(spoolDir);
+            Path file = Files.createTempFile(spoolDir, "diverted-results-", ".json");
+            Files.write(file, payload.toString(2).getBytes(StandardCharsets.UTF_8));
+            logger.info("Spooled {} results which were not sent to JIRA to {}", results.length(), file);
+        } catch (IOException e) {
+            logger.error("Unable to spool {} results to {}", results.length(), spoolDir, e);
+        }
+    }
+
+    /**
+     * Sends spooled results to the sinks they were for, with the same
+     * JIRA and result properties as the run which wrote them.
+     *
+     * @param args paths of the spooled result files
+     */
+    public static void main(String[] args) throws IOException {
+        for (String file : args) {
+            JSONObject payload = new JSONObject(
+                    new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+            List<String> sinkNames = new ArrayList<>();
+            payload.getJSONArray("sinks").forEach(name -> sinkNames.add(name.toString()));
+
+            ResultDispatcher dispatcher = new ResultDispatcher(ResultDispatcher.loadEnabledSinks().stream()
+                    .filter(sink -> sinkNames.contains(sink.getClass().getName()))
+                    .collect(toList()));
+            payload.getJSONArray("results").forEach(json -> {
+                JSONObject result = (JSONObject) json;
+                dispatcher.dispatch(new TestResult(
+                        result.getString("issue"),
+                        result.optString("testName"),
+                        ResultStatus.valueOf(result.getString("status")),
+                        result.optString("comment"),
+                        null));
+            });
+            dispatcher.finish();
+        }
+    }
+}
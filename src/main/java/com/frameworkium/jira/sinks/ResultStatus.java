@@ -0,0 +1,44 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.jira.JiraConfig;
+
+/**
+ * The result of a test, with how it is logged to each of zapi, a transition and a field.
+ */
+public enum ResultStatus {
+
+    WIP(JiraConfig.ZapiStatus.ZAPI_STATUS_WIP,
+            JiraConfig.JiraTransition.JIRA_TRANSITION_WIP,
+            JiraConfig.JiraFieldStatus.JIRA_STATUS_WIP),
+    PASS(JiraConfig.ZapiStatus.ZAPI_STATUS_PASS,
+            JiraConfig.JiraTransition.JIRA_TRANSITION_PASS,
+            JiraConfig.JiraFieldStatus.JIRA_STATUS_PASS),
+    FAIL(JiraConfig.ZapiStatus.ZAPI_STATUS_FAIL,
+            JiraConfig.JiraTransition.JIRA_TRANSITION_FAIL,
+            JiraConfig.JiraFieldStatus.JIRA_STATUS_FAIL),
+    BLOCKED(JiraConfig.ZapiStatus.ZAPI_STATUS_BLOCKED,
+            JiraConfig.JiraTransition.JIRA_TRANSITION_BLOCKED,
+            JiraConfig.JiraFieldStatus.JIRA_STATUS_BLOCKED);
+
+    private final int zapiStatus;
+    private final String[] jiraTransitions;
+    private final String jiraFieldStatus;
+
+    ResultStatus(int zapiStatus, String[] jiraTransitions, String jiraFieldStatus) {
+        this.zapiStatus = zapiStatus;
+        this.jiraTransitions = jiraTransitions;
+        this.jiraFieldStatus = jiraFieldStatus;
+    }
+
+    public int getZapiStatus() {
+        return zapiStatus;
+    }
+
+    public String[] getJiraTransitions() {
+        return jiraTransitions.clone();
+    }
+
+    public String getJiraFieldStatus() {
+        return jiraFieldStatus;
+    }
+}
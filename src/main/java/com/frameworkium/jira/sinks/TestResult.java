@@ -0,0 +1,45 @@
+package com.frameworkium.jira.sinks;
+
+/**
+ * A test result, or the start of a test, to be reported against an issue.
+ */
+public final class TestResult {
+
+    private final String issueKey;
+    private final String testName;
+    private final ResultStatus status;
+    private final String comment;
+    private final Throwable throwable;
+
+    public TestResult(String issueKey, String testName, ResultStatus status,
+                      String comment, Throwable throwable) {
+        this.issueKey = issueKey;
+        this.testName = testName;
+        this.status = status;
+        this.comment = comment;
+        this.throwable = throwable;
+    }
+
+    /** @return the value of the test's @Issue or @TestCaseId annotation */
+    public String getIssueKey() {
+        return issueKey;
+    }
+
+    /** @return the test's class and method name */
+    public String getTestName() {
+        return testName;
+    }
+
+    public ResultStatus getStatus() {
+        return status;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    /** @return the cause of a failed or skipped test, null otherwise */
+    public Throwable getThrowable() {
+        return throwable;
+    }
+}
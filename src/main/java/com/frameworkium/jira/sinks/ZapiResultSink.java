@@ -0,0 +1,61 @@
+package com.frameworkium.jira.sinks;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.properties.JiraProperty;
+import com.frameworkium.jira.zapi.ExecutionRegistry;
+import com.frameworkium.jira.zapi.MissingExecutions;
+import com.frameworkium.jira.zapi.ResultTarget;
+import com.frameworkium.jira.zapi.ZapiResults;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reports results to the Zephyr executions of the issue in each {@link ResultTarget}.
+ */
+public class ZapiResultSink implements ResultSink {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    @Override
+    public boolean isEnabled() {
+        return Property.JIRA_URL.isSpecified()
+                && !ResultTarget.all().isEmpty();
+    }
+
+    /**
+     * Resolves the executions of all the issues with a few bulk searches, creating any
+     * which are missing if {@link JiraProperty#CREATE_MISSING_EXECUTIONS} is true.
+     */
+    @Override
+    public void start(Collection<String> issueKeys) {
+        if (!JiraProperty.CREATE_MISSING_EXECUTIONS.getBoolValue()) {
+            ExecutionRegistry.resolveAll(issueKeys);
+            return;
+        }
+
+        // resolves the issues which have every execution already
+        Map<ResultTarget, List<String>> missing = ExecutionRegistry.missingByTarget(issueKeys);
+        missing.forEach(MissingExecutions::create);
+        ExecutionRegistry.refresh(missing.values().stream()
+                .flatMap(List::stream)
+                .distinct()
+                .collect(toList()));
+    }
+
+    @Override
+    public void report(TestResult result) {
+        logger.info("Logging {} to zapi", result.getStatus());
+        ZapiResults.report(result.getIssueKey(), result.getStatus().getZapiStatus(), result.getComment());
+    }
+
+    @Override
+    public void finish() {
+        ZapiResults.finish();
+    }
+}
@@ -0,0 +1,213 @@
+package com.frameworkium.jira.transport;
+
+import com.frameworkium.jira.properties.JiraProperty;
+import io.restassured.filter.Filter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Records JIRA and ZAPI traffic to, or replays it from, the file {@link JiraProperty#CASSETTE}
+ * according to {@link JiraProperty#CASSETTE_MODE}:
+ * <ul>
+ * <li>{@code record} - requests are sent as normal and each response is kept,
+ * the cassette is written when the JVM exits</li>
+ * <li>{@code replay} - no requests are sent, each is answered from the cassette</li>
+ * </ul>
+ *
+ * <p>Requests are matched by method, path and query, ignoring the JIRA host and the body.
+ * Repeated requests are answered with their responses in the order they were recorded,
+ * then with the last one. Unmatched requests in replay get a 404.
+ *
+ * <p>The cassette is a gzipped sequence of entries which is indexed by request
+ * in memory when loaded.
+ */
+public final class Cassette {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int MAGIC = 0x4A434153;
+    private static final int FORMAT_VERSION = 1;
+
+    private static volatile Cassette instance;
+
+    private final Mode mode;
+    private final Path file;
+    private final Map<String, List<Recording>> recordings = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> replayed = new ConcurrentHashMap<>();
+    private final Filter filter = new CassetteFilter(this);
+
+    public enum Mode {
+        RECORD, REPLAY;
+
+        /** @return the configured mode, or empty if it is not specified or unknown */
+        static Optional<Mode> fromProperty() {
+            return Configured.MODE;
+        }
+
+        private static Optional<Mode> parse() {
+            if (!JiraProperty.CASSETTE_MODE.isSpecified()) {
+                return Optional.empty();
+            }
+            String mode = JiraProperty.CASSETTE_MODE.getValue().trim();
+            for (Mode value : values()) {
+                if (value.name().equalsIgnoreCase(mode)) {
+                    return Optional.of(value);
+                }
+            }
+            logger.warn("Unknown jiraCassetteMode '{}', expected one of {}, not using the cassette",
+                    mode, Arrays.toString(values()));
+            return Optional.empty();
+        }
+
+        // the property is read once, when first needed
+        private static final class Configured {
+            private static final Optional<Mode> MODE = parse();
+        }
+    }
+
+    /** A recorded response. */
+    static final class Recording {
+
+        final int statusCode;
+        final String contentType;
+        final byte[] body;
+
+        Recording(int statusCode, String contentType, byte[] body) {
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private Cassette(Mode mode, Path file) {
+        this.mode = mode;
+        this.file = file;
+    }
+
+    public static boolean isEnabled() {
+        return JiraProperty.CASSETTE.isSpecified() && Mode.fromProperty().isPresent();
+    }
+
+    /**
+     * @return a filter which records or replays requests, if enabled
+     */
+    public static Optional<Filter> filter() {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        if (instance == null) {
+            synchronized (Cassette.class) {
+                if (instance == null) {
+                    instance = load();
+                }
+            }
+        }
+        return Optional.of(instance.filter);
+    }
+
+    private static Cassette load() {
+        Cassette cassette = new Cassette(Mode.fromProperty().get(), Paths.get(JiraProperty.CASSETTE.getValue()));
+        if (cassette.mode == Mode.REPLAY) {
+            cassette.read();
+        } else {
+            Runtime.getRuntime().addShutdownHook(new Thread(cassette::write, "jira-cassette-write"));
+        }
+        return cassette;
+    }
+
+    boolean isReplaying() {
+        return mode == Mode.REPLAY;
+    }
+
+    void record(String request, Recording recording) {
+        recordings.computeIfAbsent(request, r -> Collections.synchronizedList(new ArrayList<>()))
+                .add(recording);
+    }
+
+    /**
+     * @return the next response to the request, empty if it was not recorded
+     */
+    Optional<Recording> replay(String request) {
+        List<Recording> responses = recordings.get(request);
+        if (responses == null || responses.isEmpty()) {
+            return Optional.empty();
+        }
+        int index = replayed.computeIfAbsent(request, r -> new AtomicInteger()).getAndIncrement();
+        return Optional.of(responses.get(Math.min(index, responses.size() - 1)));
+    }
+
+    private void read() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IllegalStateException(file + " is not a cassette of this version");
+            }
+            int requests = in.readInt();
+            for (int i = 0; i < requests; i++) {
+                String request = in.readUTF();
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    int statusCode = in.readInt();
+                    String contentType = in.readUTF();
+                    byte[] body = new byte[in.readInt()];
+                    in.readFully(body);
+                    record(request, new Recording(statusCode, contentType.isEmpty() ? null : contentType, body));
+                }
+            }
+            logger.info("Replaying {} requests from {}", requests, file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read cassette " + file, e);
+        }
+    }
+
+    private void write() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(recordings.size());
+                for (Map.Entry<String, List<Recording>> entry : recordings.entrySet()) {
+                    List<Recording> responses = new ArrayList<>(entry.getValue());
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(responses.size());
+                    for (Recording recording : responses) {
+                        out.writeInt(recording.statusCode);
+                        out.writeUTF(recording.contentType == null ? "" : recording.contentType);
+                        out.writeInt(recording.body.length);
+                        out.write(recording.body);
+                    }
+                }
+            }
+            Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+            logger.info("Recorded {} requests to {}", recordings.size(), file);
+        } catch (IOException e) {
+            logger.error("Unable to write cassette {}", file, e);
+        }
+    }
+}
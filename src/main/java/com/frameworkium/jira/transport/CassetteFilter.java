@@ -0,0 +1,63 @@
+package com.frameworkium.jira.transport;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records each response to, or replays it from, a {@link Cassette}.
+ */
+class CassetteFilter implements Filter {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int NOT_FOUND = 404;
+
+    private final Cassette cassette;
+
+    CassetteFilter(Cassette cassette) {
+        this.cassette = cassette;
+    }
+
+    @Override
+    public Response filter(
+            FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec,
+            FilterContext ctx) {
+
+        String request = request(requestSpec);
+        if (cassette.isReplaying()) {
+            Cassette.Recording recording = cassette.replay(request).orElseGet(() -> {
+                logger.warn("No recorded response to {}", request);
+                return new Cassette.Recording(NOT_FOUND, null, new byte[0]);
+            });
+            return Responses.of(
+                    recording.statusCode,
+                    "HTTP/1.1 " + recording.statusCode,
+                    new Headers(),
+                    recording.contentType,
+                    recording.body,
+                    requestSpec.getConfig());
+        }
+
+        Response response = ctx.next(requestSpec, responseSpec);
+        cassette.record(request, new Cassette.Recording(
+                response.statusCode(), response.getContentType(), response.asByteArray()));
+        return response;
+    }
+
+    /** The method, path and query, so a cassette can be replayed against any JIRA URL. */
+    private static String request(FilterableRequestSpecification requestSpec) {
+        URI uri = URI.create(requestSpec.getURI());
+        return requestSpec.getMethod() + " " + uri.getRawPath()
+                + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+    }
+}
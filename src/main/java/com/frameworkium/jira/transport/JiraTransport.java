@@ -0,0 +1,43 @@
+package com.frameworkium.jira.transport;
+
+import com.frameworkium.jira.properties.JiraProperty;
+import io.restassured.filter.Filter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chooses the HTTP client JIRA and ZAPI requests are sent with, see {@link JiraProperty#HTTP_TRANSPORT}.
+ *
+ * <p>By default requests are sent by RestAssured's Apache HttpClient, with one HTTP/1.1
+ * connection per request in flight. The {@code jdk} transport needs Java 11, so on Java 8
+ * it is ignored; the version of this class in {@code META-INF/versions/11} of the
+ * multi-release jar provides it, see {@code src/main/java11}.
+ */
+public final class JiraTransport {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final AtomicBoolean warned = new AtomicBoolean();
+
+    private JiraTransport() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return a filter which sends requests itself, rather than RestAssured, if any
+     */
+    public static Optional<Filter> filter() {
+        if (isJdkTransport() && warned.compareAndSet(false, true)) {
+            logger.warn("The jdk HTTP transport needs Java 11+, using the default transport");
+        }
+        return Optional.empty();
+    }
+
+    static boolean isJdkTransport() {
+        return JiraProperty.HTTP_TRANSPORT.isSpecified()
+                && "jdk".equalsIgnoreCase(JiraProperty.HTTP_TRANSPORT.getValue().trim());
+    }
+}
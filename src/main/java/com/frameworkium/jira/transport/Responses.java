@@ -0,0 +1,36 @@
+package com.frameworkium.jira.transport;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Headers;
+import io.restassured.internal.RestAssuredResponseImpl;
+import io.restassured.response.Response;
+
+/**
+ * Builds RestAssured responses for requests which a filter answers itself.
+ */
+final class Responses {
+
+    private Responses() {
+        // hide default constructor for this util class
+    }
+
+    static Response of(
+            int statusCode, String statusLine, Headers headers, String contentType,
+            byte[] body, RestAssuredConfig config) {
+
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(statusCode)
+                .setStatusLine(statusLine)
+                .setHeaders(headers)
+                .setBody(body);
+        if (contentType != null) {
+            builder.setContentType(contentType);
+        }
+
+        // built responses have no config of their own, which jsonPath() needs
+        RestAssuredResponseImpl built = (RestAssuredResponseImpl) builder.build();
+        built.setConfig(config);
+        return built;
+    }
+}
@@ -3,6 +3,10 @@ package com.frameworkium.jira.zapi;
 import io.restassured.response.Response;
 import com.frameworkium.base.properties.Property;
 import com.frameworkium.jira.JiraConfig;
+import com.frameworkium.jira.api.Attachments;
+import com.frameworkium.jira.cache.MetadataCache;
+import com.frameworkium.jira.concurrent.IssueLocks;
+import com.frameworkium.jira.sinks.ReportingBudget;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -15,9 +19,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.frameworkium.jira.JiraConfig.REST_ZAPI_PATH;
 import static com.frameworkium.jira.JiraConfig.getJIRARequestSpec;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 public class Execution {
@@ -28,6 +34,7 @@ public class Execution {
     private final String issue;
     private List<Integer> idList;
     private int currentStatus;
+    private boolean statusSearched;
 
     /**
      * Constructor that links an execution to an issue.
@@ -38,10 +45,34 @@ public class Execution {
         initExecutionIdsAndCurrentStatus();
     }
 
+    /**
+     * Constructor for an issue whose execution IDs have already been found.
+     */
+    Execution(String issue, List<Integer> idList) {
+        this.version = Property.RESULT_VERSION.getValue();
+        this.issue = issue;
+        this.idList = idList;
+    }
+
     private void initExecutionIdsAndCurrentStatus() {
         if (isBlank(version) || isBlank(issue)) {
             return;
         }
+
+        Optional<MetadataCache> cache = MetadataCache.ifEnabled();
+        String targets = ResultTarget.all().toString();
+        Optional<List<Integer>> cachedIds = cache.flatMap(c -> c.getExecutionIds(issue, targets));
+        if (cachedIds.isPresent()) {
+            // the current status is only searched for if requested
+            idList = cachedIds.get();
+            return;
+        }
+
+        searchExecutions();
+        cache.ifPresent(c -> c.putExecutionIds(issue, targets, idList));
+    }
+
+    private void searchExecutions() {
         String query = String.format(
                 "issue='%s' and fixVersion='%s'", issue, version);
 
@@ -52,6 +83,7 @@ public class Execution {
         if (!statusList.isEmpty()) {
             currentStatus = statusList.get(0);
         }
+        statusSearched = true;
     }
 
     /**
@@ -72,7 +104,15 @@ public class Execution {
         }
     }
 
+    /** @return the IDs of this issue's executions in the result version, empty if there are none */
+    public List<Integer> getExecutionIds() {
+        return idList == null ? new ArrayList<>() : idList;
+    }
+
     public int getExecutionStatus() {
+        if (!statusSearched && !isBlank(version) && !isBlank(issue)) {
+            searchExecutions();
+        }
         return currentStatus;
     }
 
@@ -83,12 +123,22 @@ public class Execution {
         if (idList == null) {
             return;
         }
-        for (Integer executionId : idList) {
-            updateStatusAndComment(executionId, status, comment);
-            replaceExistingAttachments(executionId, attachments);
+        update(idList, status, comment, attachments);
+    }
 
-            logger.debug("ZAPI Updater - Updated {} to status {}", issue, status);
-        }
+    /**
+     * Update only the given executions of the issue, e.g. those whose status has changed.
+     */
+    void update(List<Integer> executionIds, int status, String comment, String... attachments) {
+        // updates to the same issue from parallel tests are applied in order
+        IssueLocks.withLock(issue, () -> {
+            for (Integer executionId : executionIds) {
+                updateStatusAndComment(executionId, status, comment);
+                replaceExistingAttachments(executionId, attachments);
+
+                logger.debug("ZAPI Updater - Updated {} to status {}", issue, status);
+            }
+        });
     }
 
     private Response updateStatusAndComment(Integer executionId, int status, String comment) {
@@ -115,10 +165,15 @@ public class Execution {
     }
 
     private void replaceExistingAttachments(Integer executionId, String... attachments) {
-        if (attachments != null) {
-            deleteExistingAttachments(executionId);
-            addAttachments(executionId, attachments);
+        if (attachments == null) {
+            return;
         }
+        // keep the existing attachments if there is no time left to upload the new ones
+        if (attachments.length > 0 && ReportingBudget.drop(false)) {
+            return;
+        }
+        deleteExistingAttachments(executionId);
+        addAttachments(executionId, attachments);
     }
 
     private List<Response> deleteExistingAttachments(Integer executionId) {
@@ -144,18 +199,16 @@ public class Execution {
         String path = REST_ZAPI_PATH
                 + "attachment?entityType=EXECUTION&entityId=" + executionId;
 
-        ArrayList<Response> responses = new ArrayList<>();
-
-        Arrays.stream(attachments)
+        List<File> files = Arrays.stream(attachments)
                 .filter(Objects::nonNull)
                 .map(File::new)
-                .forEach(attachment -> responses.add(
-                            getJIRARequestSpec()
-                                .header("X-Atlassian-Token", "nocheck")
-                                .multiPart(attachment)
-                                .when()
-                                .post(path)));
-
-        return responses;
+                .collect(toList());
+
+        // ZAPI takes one file per request, so these are sent concurrently instead
+        return Attachments.uploadEach(files, file -> getJIRARequestSpec()
+                .header("X-Atlassian-Token", "nocheck")
+                .multiPart(file)
+                .when()
+                .post(path));
     }
 }
@@ -0,0 +1,113 @@
+package com.frameworkium.jira.zapi;
+
+import com.frameworkium.jira.JiraConfig;
+import com.frameworkium.jira.concurrent.JiraExecutors;
+import com.frameworkium.jira.properties.JiraProperty;
+import io.restassured.path.json.JsonPath;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Iterates over the pages of a ZQL search. The first page is fetched on first use and
+ * gives the total count, the following pages are fetched ahead of the caller with up to
+ * {@link JiraProperty#SEARCH_CONCURRENCY} requests in flight at once.
+ */
+class ExecutionPages implements Iterator<List<ExecutionRecord>> {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final String query;
+    private final int concurrency = Math.max(1, JiraProperty.SEARCH_CONCURRENCY.getIntValue(4));
+    private final Deque<CompletableFuture<List<ExecutionRecord>>> inFlight = new ArrayDeque<>();
+
+    private List<ExecutionRecord> firstPage;
+    private int totalCount = -1;
+    private int pageSize = PAGE_SIZE;
+    private int nextOffset;
+
+    ExecutionPages(String query) {
+        this.query = query;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (totalCount < 0) {
+            fetchFirstPage();
+        }
+        return firstPage != null || !inFlight.isEmpty() || nextOffset < totalCount;
+    }
+
+    @Override
+    public List<ExecutionRecord> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fetchAhead();
+        if (firstPage != null) {
+            List<ExecutionRecord> page = firstPage;
+            firstPage = null;
+            return page;
+        }
+        try {
+            return inFlight.poll().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void fetchFirstPage() {
+        JsonPath page = fetch(0, PAGE_SIZE);
+        totalCount = page.getInt("totalCount");
+        firstPage = records(page);
+        // the server may cap the page size below what was asked for
+        if (!firstPage.isEmpty() && firstPage.size() < totalCount) {
+            pageSize = Math.min(PAGE_SIZE, firstPage.size());
+        }
+        nextOffset = firstPage.size();
+    }
+
+    private void fetchAhead() {
+        while (inFlight.size() < concurrency && nextOffset < totalCount) {
+            int offset = nextOffset;
+            inFlight.add(CompletableFuture.supplyAsync(
+                    () -> records(fetch(offset, pageSize)), JiraExecutors.background()));
+            nextOffset += pageSize;
+        }
+    }
+
+    private JsonPath fetch(int offset, int maxRecords) {
+        return JiraConfig.getJIRARequestSpec()
+                .queryParam("zqlQuery", query)
+                .queryParam("offset", offset)
+                .queryParam("maxRecords", maxRecords)
+                .when()
+                .get(JiraConfig.REST_ZAPI_PATH + "zql/executeSearch")
+                .then().statusCode(200)
+                .extract().jsonPath();
+    }
+
+    private static List<ExecutionRecord> records(JsonPath page) {
+        List<Integer> ids = page.getList("executions.id");
+        List<String> issueKeys = page.getList("executions.issueKey");
+        List<Integer> statusIds = page.getList("executions.status.id");
+        List<String> versionNames = page.getList("executions.versionName");
+        List<String> cycleNames = page.getList("executions.cycleName");
+
+        List<ExecutionRecord> records = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            records.add(new ExecutionRecord(
+                    ids.get(i), issueKeys.get(i), statusIds.get(i), versionNames.get(i), cycleNames.get(i)));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,46 @@
+package com.frameworkium.jira.zapi;
+
+/**
+ * The fields of a ZQL search result which reporting needs, without the rest of the JSON.
+ */
+public final class ExecutionRecord {
+
+    private final int id;
+    private final String issueKey;
+    private final int statusId;
+    private final String versionName;
+    private final String cycleName;
+
+    ExecutionRecord(int id, String issueKey, int statusId, String versionName, String cycleName) {
+        this.id = id;
+        this.issueKey = issueKey;
+        this.statusId = statusId;
+        this.versionName = versionName;
+        this.cycleName = cycleName;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getIssueKey() {
+        return issueKey;
+    }
+
+    public int getStatusId() {
+        return statusId;
+    }
+
+    public String getVersionName() {
+        return versionName;
+    }
+
+    public String getCycleName() {
+        return cycleName;
+    }
+
+    @Override
+    public String toString() {
+        return issueKey + "/" + id + " (" + versionName + "|" + cycleName + "): " + statusId;
+    }
+}
@@ -0,0 +1,211 @@
+package com.frameworkium.jira.zapi;
+
+import com.frameworkium.jira.cache.MetadataCache;
+import com.frameworkium.jira.concurrent.IssueLocks;
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Shares one resolved {@link Execution} per issue between all threads of a run,
+ * so parallel methods or data provider invocations for the same issue update
+ * the same execution, in order, rather than racing each other.
+ *
+ * <p>An issue's execution holds its executions in every {@link ResultTarget},
+ * so each result is written to all the targets at once. Execution IDs are
+ * read from, and added to, the {@link MetadataCache} if it is enabled.
+ */
+public final class ExecutionRegistry {
+
+    private static final Map<String, Execution> executions = new ConcurrentHashMap<>();
+
+    private static final int ISSUES_PER_SEARCH = 50;
+
+    private ExecutionRegistry() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return the execution for the issue, searching for it on first use
+     */
+    public static Execution get(String issue) {
+        Execution execution = executions.get(issue);
+        if (execution != null) {
+            return execution;
+        }
+        // resolve under the issue's lock so only one search is made per issue
+        // without blocking resolution of other issues
+        return IssueLocks.withLock(issue, () -> {
+            Execution resolved = executions.get(issue);
+            if (resolved == null) {
+                resolved = JiraProperty.RESULT_TARGETS.isSpecified()
+                        ? new Execution(issue, searchIds(Collections.singletonList(issue))
+                                .getOrDefault(issue, new ArrayList<>()))
+                        : new Execution(issue);
+                executions.put(issue, resolved);
+            }
+            return resolved;
+        });
+    }
+
+    /**
+     * Resolves the executions of all the given issues, which are not already known,
+     * with one ZQL search per {@value #ISSUES_PER_SEARCH} issues.
+     *
+     * @return the executions of the given issues
+     */
+    public static Map<String, Execution> resolveAll(Collection<String> issues) {
+        List<String> unresolved = issues.stream()
+                .filter(StringUtils::isNotBlank)
+                .distinct()
+                .filter(issue -> !executions.containsKey(issue))
+                .collect(toList());
+
+        if (!ResultTarget.all().isEmpty()) {
+            Optional<MetadataCache> cache = MetadataCache.ifEnabled();
+            String targets = ResultTarget.all().toString();
+            List<String> toSearch = new ArrayList<>();
+            for (String issue : unresolved) {
+                Optional<List<Integer>> cachedIds = cache.flatMap(c -> c.getExecutionIds(issue, targets));
+                if (cachedIds.isPresent()) {
+                    executions.putIfAbsent(issue, new Execution(issue, cachedIds.get()));
+                } else {
+                    toSearch.add(issue);
+                }
+            }
+
+            for (int i = 0; i < toSearch.size(); i += ISSUES_PER_SEARCH) {
+                List<String> chunk = toSearch.subList(i, Math.min(i + ISSUES_PER_SEARCH, toSearch.size()));
+                Map<String, List<Integer>> idsByIssue = searchIds(chunk);
+                chunk.forEach(issue -> executions.putIfAbsent(issue,
+                        new Execution(issue, idsByIssue.getOrDefault(issue, new ArrayList<>()))));
+            }
+        }
+
+        return issues.stream()
+                .filter(StringUtils::isNotBlank)
+                .distinct()
+                .collect(toMap(identity(), ExecutionRegistry::get));
+    }
+
+    /**
+     * Searches for the current status of every execution of the given issues, with
+     * one ZQL search per {@value #ISSUES_PER_SEARCH} issues, bypassing any caches.
+     *
+     * @return execution ID to ZAPI status ID
+     */
+    public static Map<Integer, Integer> currentStatuses(Collection<String> issues) {
+        Map<Integer, Integer> statuses = new HashMap<>();
+        if (ResultTarget.all().isEmpty()) {
+            return statuses;
+        }
+        List<String> distinct = issues.stream()
+                .filter(StringUtils::isNotBlank)
+                .distinct()
+                .collect(toList());
+        for (int i = 0; i < distinct.size(); i += ISSUES_PER_SEARCH) {
+            search(distinct.subList(i, Math.min(i + ISSUES_PER_SEARCH, distinct.size())))
+                    .forEach(record -> statuses.put(record.getId(), record.getStatusId()));
+        }
+        return statuses;
+    }
+
+    /**
+     * Searches for the executions of the given issues in each target. The issues which have
+     * an execution in every target are resolved from the same search.
+     *
+     * @return for each target, the issues which have no execution in it
+     */
+    public static Map<ResultTarget, List<String>> missingByTarget(Collection<String> issues) {
+        List<String> distinct = issues.stream()
+                .filter(StringUtils::isNotBlank)
+                .distinct()
+                .collect(toList());
+        List<ResultTarget> targets = ResultTarget.all();
+        Map<ResultTarget, Set<String>> found = new HashMap<>();
+        Map<String, List<Integer>> idsByIssue = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i += ISSUES_PER_SEARCH) {
+            search(distinct.subList(i, Math.min(i + ISSUES_PER_SEARCH, distinct.size())))
+                    .forEach(record -> {
+                        idsByIssue.computeIfAbsent(record.getIssueKey(), issue -> new ArrayList<>())
+                                .add(record.getId());
+                        targets.stream()
+                                .filter(target -> target.matches(record))
+                                .forEach(target -> found.computeIfAbsent(target, t -> new HashSet<>())
+                                        .add(record.getIssueKey()));
+                    });
+        }
+
+        Map<ResultTarget, List<String>> missing = new LinkedHashMap<>();
+        for (ResultTarget target : targets) {
+            Set<String> inTarget = found.getOrDefault(target, Collections.emptySet());
+            List<String> notInTarget = distinct.stream()
+                    .filter(issue -> !inTarget.contains(issue))
+                    .collect(toList());
+            if (!notInTarget.isEmpty()) {
+                missing.put(target, notInTarget);
+            }
+        }
+
+        Set<String> anyMissing = new HashSet<>();
+        missing.values().forEach(anyMissing::addAll);
+        Optional<MetadataCache> cache = MetadataCache.ifEnabled();
+        String targetsKey = targets.toString();
+        distinct.stream()
+                .filter(issue -> !anyMissing.contains(issue))
+                .forEach(issue -> {
+                    List<Integer> ids = idsByIssue.get(issue);
+                    executions.putIfAbsent(issue, new Execution(issue, ids));
+                    cache.ifPresent(c -> c.putExecutionIds(issue, targetsKey, ids));
+                });
+        return missing;
+    }
+
+    /** Searches for the IDs of the issues' executions in any target, adding them to the metadata cache. */
+    private static Map<String, List<Integer>> searchIds(List<String> issues) {
+        Map<String, List<Integer>> idsByIssue = search(issues)
+                .collect(groupingBy(ExecutionRecord::getIssueKey, mapping(ExecutionRecord::getId, toList())));
+        String targets = ResultTarget.all().toString();
+        MetadataCache.ifEnabled().ifPresent(cache ->
+                idsByIssue.forEach((issue, ids) -> cache.putExecutionIds(issue, targets, ids)));
+        return idsByIssue;
+    }
+
+    /** Searches all targets' versions at once, keeping the executions in any target. */
+    private static Stream<ExecutionRecord> search(List<String> issues) {
+        List<ResultTarget> targets = ResultTarget.all();
+        String query = String.format("issue in (%s) and fixVersion in (%s)",
+                issues.stream().map(issue -> "'" + issue + "'").collect(joining(",")),
+                targets.stream().map(target -> "'" + target.getVersion() + "'").distinct().collect(joining(",")));
+        return SearchExecutions.streamAllCycles(query)
+                .filter(record -> targets.stream().anyMatch(target -> target.matches(record)));
+    }
+
+    /**
+     * Forgets the executions of the issues and resolves them again, e.g. after creating executions.
+     */
+    public static Map<String, Execution> refresh(Collection<String> issues) {
+        issues.forEach(executions::remove);
+        MetadataCache.ifEnabled().ifPresent(cache -> issues.forEach(cache::evictExecutionIds));
+        return resolveAll(issues);
+    }
+}
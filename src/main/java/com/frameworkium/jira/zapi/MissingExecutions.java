@@ -0,0 +1,159 @@
+package com.frameworkium.jira.zapi;
+
+import io.restassured.path.json.JsonPath;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.frameworkium.jira.JiraConfig.JIRA_REST_PATH;
+import static com.frameworkium.jira.JiraConfig.REST_ZAPI_PATH;
+import static com.frameworkium.jira.JiraConfig.getJIRARequestSpec;
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Adds tests which have no execution in a {@link ResultTarget} to the target's cycle,
+ * or to the Ad hoc cycle of its version if the target has no cycle, with one bulk
+ * request per project. Nothing is created if no cycle matches the target's cycle,
+ * as executions elsewhere would never be written to.
+ */
+public final class MissingExecutions {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final String AD_HOC_CYCLE_ID = "-1";
+    // add tests to cycle by issue keys
+    private static final String ADD_BY_ISSUES = "1";
+    private static final int ISSUES_PER_REQUEST = 500;
+    private static final long POLL_INTERVAL_MILLIS = 500;
+    private static final long MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private MissingExecutions() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * Creates executions for the issues, waiting until ZAPI has finished creating them.
+     * Failures are logged, results for those issues are then not reported as before.
+     *
+     * @param target the version and cycle to create the executions in
+     * @param issues keys of issues without an execution in the target
+     */
+    public static void create(ResultTarget target, List<String> issues) {
+        Map<String, List<String>> issuesByProject = issues.stream()
+                .filter(issue -> {
+                    boolean valid = issue.lastIndexOf('-') > 0;
+                    if (!valid) {
+                        logger.warn("{} is not an issue key, not creating an execution for it", issue);
+                    }
+                    return valid;
+                })
+                .collect(groupingBy(issue -> issue.substring(0, issue.lastIndexOf('-'))));
+
+        issuesByProject.forEach((projectKey, projectIssues) -> {
+            try {
+                addToCycle(target, projectKey, projectIssues);
+            } catch (RuntimeException e) {
+                logger.error("Unable to create executions for {}", projectIssues, e);
+            }
+        });
+    }
+
+    private static void addToCycle(ResultTarget target, String projectKey, List<String> issues) {
+        String projectId = getJIRARequestSpec()
+                .get(JIRA_REST_PATH + "project/" + projectKey)
+                .then().statusCode(200)
+                .extract().jsonPath().getString("id");
+
+        String versionId = getJIRARequestSpec()
+                .get(JIRA_REST_PATH + "project/" + projectKey + "/versions")
+                .then().statusCode(200)
+                .extract().jsonPath()
+                .getString("find { it.name == '" + target.getVersion() + "' }.id");
+        if (versionId == null) {
+            logger.warn("{} has no version {}, not creating executions for {}",
+                    projectKey, target.getVersion(), issues);
+            return;
+        }
+
+        Optional<String> cycleId = findCycleId(target, projectId, versionId);
+        if (!cycleId.isPresent()) {
+            logger.warn("No cycle of {} in {} matches '{}', not creating executions for {}",
+                    target.getVersion(), projectKey, target.getCycleRegex(), issues);
+            return;
+        }
+        logger.info("Creating executions for {} in cycle {} of {}",
+                issues, cycleId.get(), target.getVersion());
+
+        for (int i = 0; i < issues.size(); i += ISSUES_PER_REQUEST) {
+            List<String> chunk = issues.subList(i, Math.min(i + ISSUES_PER_REQUEST, issues.size()));
+            JSONObject obj = new JSONObject()
+                    .put("issues", new JSONArray(chunk))
+                    .put("projectId", projectId)
+                    .put("versionId", versionId)
+                    .put("cycleId", cycleId.get())
+                    .put("method", ADD_BY_ISSUES);
+
+            String jobToken = getJIRARequestSpec()
+                    .contentType("application/json")
+                    .body(obj.toString())
+                    .when()
+                    .post(REST_ZAPI_PATH + "execution/addTestsToCycle/")
+                    .then().statusCode(200)
+                    .extract().jsonPath().getString("jobProgressToken");
+            if (jobToken != null) {
+                awaitJob(jobToken);
+            }
+        }
+    }
+
+    /**
+     * @return the id of the first cycle whose name contains the cycle regex,
+     *         the Ad hoc cycle if the target has no cycle, else empty
+     */
+    private static Optional<String> findCycleId(ResultTarget target, String projectId, String versionId) {
+        if (target.getCycleRegex() == null) {
+            return Optional.of(AD_HOC_CYCLE_ID);
+        }
+        // cycles are keyed by id, alongside a recordsCount entry
+        JSONObject cycles = new JSONObject(getJIRARequestSpec()
+                .queryParam("projectId", projectId)
+                .queryParam("versionId", versionId)
+                .get(REST_ZAPI_PATH + "cycle")
+                .then().statusCode(200)
+                .extract().asString());
+        for (String cycleId : cycles.keySet()) {
+            JSONObject cycle = cycles.optJSONObject(cycleId);
+            if (cycle != null && cycle.optString("name").contains(target.getCycleRegex())) {
+                return Optional.of(cycleId);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static void awaitJob(String jobToken) {
+        long deadline = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            JsonPath progress = getJIRARequestSpec()
+                    .queryParam("type", "add_tests_to_cycle_job_progress")
+                    .get(REST_ZAPI_PATH + "execution/jobProgress/" + jobToken)
+                    .jsonPath();
+            String done = progress.getString("progress");
+            if (done != null && Double.parseDouble(done) >= 1.0) {
+                return;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        logger.warn("Timed out waiting for ZAPI job {} to create executions", jobToken);
+    }
+}
@@ -0,0 +1,88 @@
+package com.frameworkium.jira.zapi;
+
+import com.frameworkium.base.properties.Property;
+import com.frameworkium.jira.properties.JiraProperty;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A version, and optionally a cycle within it, whose executions results are written to.
+ *
+ * <p>The targets are {@link JiraProperty#RESULT_TARGETS} if specified, e.g.
+ * {@code -DzapiResultTargets="2.1;Regression|Nightly"}, otherwise the single target of
+ * {@link Property#RESULT_VERSION} and {@link Property#ZAPI_CYCLE_REGEX}.
+ */
+public final class ResultTarget {
+
+    private final String version;
+    private final String cycleRegex;
+
+    ResultTarget(String version, String cycleRegex) {
+        this.version = version;
+        this.cycleRegex = StringUtils.isBlank(cycleRegex) ? null : cycleRegex;
+    }
+
+    /**
+     * @return the configured targets, empty if there are none
+     */
+    public static List<ResultTarget> all() {
+        if (JiraProperty.RESULT_TARGETS.isSpecified()) {
+            List<ResultTarget> targets = new ArrayList<>();
+            for (String target : JiraProperty.RESULT_TARGETS.getValue().split(";")) {
+                String[] versionAndCycle = target.split("\\|", 2);
+                if (StringUtils.isNotBlank(versionAndCycle[0])) {
+                    targets.add(new ResultTarget(
+                            versionAndCycle[0].trim(),
+                            versionAndCycle.length > 1 ? versionAndCycle[1].trim() : null));
+                }
+            }
+            return targets;
+        }
+        if (Property.RESULT_VERSION.isSpecified()) {
+            return Collections.singletonList(new ResultTarget(
+                    Property.RESULT_VERSION.getValue(),
+                    Property.ZAPI_CYCLE_REGEX.isSpecified() ? Property.ZAPI_CYCLE_REGEX.getValue() : null));
+        }
+        return Collections.emptyList();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /** @return text the cycle name must contain, null for any cycle in the version */
+    public String getCycleRegex() {
+        return cycleRegex;
+    }
+
+    boolean matches(ExecutionRecord record) {
+        return version.equals(record.getVersionName())
+                && (cycleRegex == null || record.getCycleName().contains(cycleRegex));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResultTarget)) {
+            return false;
+        }
+        ResultTarget that = (ResultTarget) o;
+        return version.equals(that.version) && Objects.equals(cycleRegex, that.cycleRegex);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, cycleRegex);
+    }
+
+    @Override
+    public String toString() {
+        return cycleRegex == null ? version : version + "|" + cycleRegex;
+    }
+}
@@ -2,38 +2,109 @@ package com.frameworkium.jira.zapi;
 
 import com.frameworkium.base.properties.Property;
 import com.frameworkium.jira.JiraConfig;
+import com.frameworkium.jira.concurrent.SingleFlight;
+import com.frameworkium.jira.properties.JiraProperty;
 import io.restassured.path.json.JsonPath;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
 
 public class SearchExecutions {
 
+    /** Identical searches in flight at the same time share one request. */
+    private static final SingleFlight<String, String> SEARCHES =
+            new SingleFlight<>(JiraProperty.READ_CACHE_TTL_MILLIS.getLongValue(0));
+
     private final JsonPath jsonPath;
 
     /**
      * Constructor which executes the given query.
      */
     public SearchExecutions(String query) {
-        jsonPath = JiraConfig.getJIRARequestSpec()
-                .when()
-                .get(JiraConfig.REST_ZAPI_PATH + "zql/executeSearch?zqlQuery=" + query)
-                .thenReturn().jsonPath();
+        jsonPath = new JsonPath(SEARCHES.get(query, () ->
+                JiraConfig.getJIRARequestSpec()
+                        .queryParam("zqlQuery", query)
+                        .when()
+                        .get(JiraConfig.REST_ZAPI_PATH + "zql/executeSearch")
+                        .thenReturn().asString()));
+    }
+
+    /**
+     * Constructor which executes the given query, returning up to maxRecords executions.
+     */
+    public SearchExecutions(String query, int maxRecords) {
+        jsonPath = new JsonPath(SEARCHES.get(query + "|" + maxRecords, () ->
+                JiraConfig.getJIRARequestSpec()
+                        .queryParam("zqlQuery", query)
+                        .queryParam("maxRecords", maxRecords)
+                        .when()
+                        .get(JiraConfig.REST_ZAPI_PATH + "zql/executeSearch")
+                        .thenReturn().asString()));
+    }
+
+    /**
+     * Searches for every execution matching the query, not just the first page,
+     * in the cycle if specified.
+     *
+     * <p>Pages are fetched as the stream is consumed, with a few requests in flight at once.
+     *
+     * @param query ZQL query
+     * @return a lazy stream of the matching executions
+     */
+    public static Stream<ExecutionRecord> stream(String query) {
+        Stream<ExecutionRecord> records = streamAllCycles(query);
+
+        if (Property.ZAPI_CYCLE_REGEX.isSpecified()) {
+            String jiraCycleRegEx = Property.ZAPI_CYCLE_REGEX.getValue();
+            return records.filter(record -> record.getCycleName().contains(jiraCycleRegEx));
+        }
+        return records;
+    }
+
+    /**
+     * As {@link #stream(String)}, but in every cycle.
+     */
+    static Stream<ExecutionRecord> streamAllCycles(String query) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new ExecutionPages(query), ORDERED | NONNULL),
+                false)
+                .flatMap(List::stream);
     }
 
     public List<Integer> getExecutionIds() {
-        return getIDs("executions.id");
+        return getFiltered("executions.id");
     }
 
     public List<Integer> getExecutionStatuses() {
-        return getIDs("executions.status.id");
+        return getFiltered("executions.status.id");
+    }
+
+    /**
+     * @return the IDs of the executions in the cycle, if specified, grouped by issue key
+     */
+    public Map<String, List<Integer>> getExecutionIdsByIssue() {
+        List<String> issueKeys = getFiltered("executions.issueKey");
+        List<Integer> ids = getFiltered("executions.id");
+        Map<String, List<Integer>> idsByIssue = new HashMap<>();
+        for (int i = 0; i < issueKeys.size() && i < ids.size(); i++) {
+            idsByIssue.computeIfAbsent(issueKeys.get(i), k -> new ArrayList<>()).add(ids.get(i));
+        }
+        return idsByIssue;
     }
 
-    private List<Integer> getIDs(String path) {
-        List<Integer> ids = jsonPath.getList(path);
+    private <T> List<T> getFiltered(String path) {
+        List<T> ids = jsonPath.getList(path);
 
         if (Property.ZAPI_CYCLE_REGEX.isSpecified()) {
-            List<Integer> filteredIds = new ArrayList<>();
+            List<T> filteredIds = new ArrayList<>();
             String jiraCycleRegEx = Property.ZAPI_CYCLE_REGEX.getValue();
             List<String> cycleNames = jsonPath.getList("executions.cycleName");
             for (int i = 0; i < cycleNames.size() && i < ids.size(); i++) {
@@ -0,0 +1,287 @@
+package com.frameworkium.jira.zapi;
+
+import com.frameworkium.jira.concurrent.IssueLocks;
+import com.frameworkium.jira.properties.JiraProperty;
+import com.frameworkium.jira.sinks.ReportingBudget;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.frameworkium.jira.JiraConfig.JIRA_REST_PATH;
+import static com.frameworkium.jira.JiraConfig.REST_ZAPI_PATH;
+import static com.frameworkium.jira.JiraConfig.getJIRARequestSpec;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Writes the result of each test step to the ZAPI step results of an issue's executions,
+ * if {@link JiraProperty#ZAPI_STEP_RESULTS} is true.
+ *
+ * <p>Step results are written when the test ends if reporting live, otherwise with the
+ * test's result according to {@link JiraProperty#ZAPI_REPORTING_MODE}. Every step of
+ * an execution is first set to its steps' most common status, with one bulk request per
+ * test status and step status, which is all a passed test needs. ZAPI has no bulk update
+ * of individual step results, so the few steps with another status or a comment, e.g.
+ * the step a test failed on, are then updated one by one, at most
+ * {@value #MAX_STEP_UPDATES_PER_EXECUTION} per execution, and not at all once reporting
+ * is degraded, see {@link ReportingBudget}.
+ *
+ * <p>Steps are matched to ZAPI test steps by their text, ignoring the Gherkin keyword,
+ * so steps without a ZAPI test step, e.g. background steps, are skipped. If no step
+ * text matches, steps are matched by their order as long as the counts agree.
+ */
+public final class StepResults {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int COMMENT_MAX_LENGTH = 750;
+    private static final int EXECUTIONS_PER_BULK_UPDATE = 500;
+    private static final int MAX_STEP_UPDATES_PER_EXECUTION = 10;
+
+    private StepResults() {
+        // hide default constructor for this util class
+    }
+
+    public static boolean isEnabled() {
+        return JiraProperty.ZAPI_STEP_RESULTS.getBoolValue();
+    }
+
+    /** The result of one test step. */
+    public static final class Step {
+
+        private final String text;
+        private final int status;
+        private final String comment;
+
+        /**
+         * @param text    the text of the step, without its Gherkin keyword
+         * @param status  the ZAPI status of the step
+         * @param comment e.g. the error the step failed with, may be null
+         */
+        public Step(String text, int status, String comment) {
+            this.text = StringUtils.defaultString(text);
+            this.status = status;
+            this.comment = StringUtils.abbreviate(StringUtils.defaultString(comment), COMMENT_MAX_LENGTH);
+        }
+    }
+
+    /**
+     * Writes the step results to each of the issue's executions, or keeps them to be
+     * written with its result if not reporting live.
+     *
+     * @param issue  the key of the test issue
+     * @param status the ZAPI status of the test
+     * @param steps  the results of its steps, in order
+     */
+    public static void report(String issue, int status, List<Step> steps) {
+        if (!isEnabled() || steps.isEmpty()) {
+            return;
+        }
+        if (ZapiResults.Mode.fromProperty() != ZapiResults.Mode.LIVE) {
+            ZapiResults.deferSteps(issue, toJson(steps));
+            return;
+        }
+        if (ReportingBudget.drop(true)) {
+            logger.debug("Dropping step results of {}, the reporting budget is nearly used up", issue);
+            return;
+        }
+        List<Step> toWrite = new ArrayList<>(steps);
+        long startedAt = ReportingBudget.begin();
+        try {
+            IssueLocks.withLock(issue, () -> write(
+                    Collections.singletonMap(issue, toWrite), Collections.singletonMap(issue, status)));
+        } finally {
+            ReportingBudget.end(startedAt);
+        }
+    }
+
+    /**
+     * Writes the step results of each issue to its executions.
+     *
+     * @param stepsByIssue  the step results of each issue
+     * @param statusByIssue the status of each issue's test, its executions are set to
+     *                      this status too when written in bulk
+     */
+    static void write(Map<String, List<Step>> stepsByIssue, Map<String, Integer> statusByIssue) {
+        // test status -> step status -> execution ids
+        Map<Integer, Map<Integer, List<Integer>>> bulkExecutionIds = new HashMap<>();
+        Map<String, List<Integer>> executionIdsToUpdate = new LinkedHashMap<>();
+        stepsByIssue.forEach((issue, steps) -> {
+            List<Integer> executionIds = ExecutionRegistry.get(issue).getExecutionIds();
+            Integer status = statusByIssue.get(issue);
+            if (status == null) {
+                // without the test's status the executions can't be written in bulk
+                executionIdsToUpdate.put(issue, executionIds);
+                return;
+            }
+            int stepStatus = mostCommonStatus(steps);
+            bulkExecutionIds.computeIfAbsent(status, s -> new HashMap<>())
+                    .computeIfAbsent(stepStatus, s -> new ArrayList<>())
+                    .addAll(executionIds);
+            if (steps.stream().anyMatch(step -> step.status != stepStatus || !step.comment.isEmpty())) {
+                executionIdsToUpdate.put(issue, executionIds);
+            }
+        });
+        bulkExecutionIds.forEach((status, idsByStepStatus) -> idsByStepStatus.forEach(
+                (stepStatus, executionIds) -> updateAllSteps(status, stepStatus, executionIds)));
+
+        executionIdsToUpdate.forEach((issue, executionIds) -> {
+            if (ReportingBudget.drop(true)) {
+                logger.debug("Not updating individual step results of {}, reporting is degraded", issue);
+                return;
+            }
+            try {
+                Map<String, Object> stepIdsByText = testStepIds(issue);
+                for (Integer executionId : executionIds) {
+                    updateChanged(executionId, stepsByIssue.get(issue), stepIdsByText);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Unable to update step results of {}", issue, e);
+            }
+        });
+    }
+
+    static JSONArray toJson(List<Step> steps) {
+        JSONArray json = new JSONArray();
+        steps.forEach(step -> json.put(new JSONObject()
+                .put("text", step.text)
+                .put("status", step.status)
+                .put("comment", step.comment)));
+        return json;
+    }
+
+    static List<Step> fromJson(JSONArray json) {
+        List<Step> steps = new ArrayList<>();
+        for (int i = 0; i < json.length(); i++) {
+            JSONObject step = json.getJSONObject(i);
+            steps.add(new Step(step.optString("text"), step.getInt("status"), step.optString("comment")));
+        }
+        return steps;
+    }
+
+    private static int mostCommonStatus(List<Step> steps) {
+        Map<Integer, Long> counts = steps.stream().collect(groupingBy(step -> step.status, counting()));
+        return Collections.max(counts.entrySet(), Map.Entry.comparingByValue()).getKey();
+    }
+
+    /**
+     * Sets the executions to the status and every one of their steps to the step status.
+     */
+    private static void updateAllSteps(int status, int stepStatus, List<Integer> executionIds) {
+        for (int i = 0; i < executionIds.size(); i += EXECUTIONS_PER_BULK_UPDATE) {
+            List<Integer> chunk = executionIds.subList(
+                    i, Math.min(i + EXECUTIONS_PER_BULK_UPDATE, executionIds.size()));
+            JSONObject obj = new JSONObject()
+                    .put("executions", new JSONArray(chunk))
+                    .put("status", String.valueOf(status))
+                    .put("stepStatus", String.valueOf(stepStatus))
+                    .put("testStepStatusChangeFlag", true)
+                    .put("clearDefectMappingFlag", false);
+
+            getJIRARequestSpec()
+                    .contentType("application/json")
+                    .body(obj.toString())
+                    .when()
+                    .put(REST_ZAPI_PATH + "execution/updateWithBulkStatus");
+        }
+    }
+
+    private static void updateChanged(Integer executionId, List<Step> steps, Map<String, Object> stepIdsByText) {
+        JSONArray current = new JSONArray(getJIRARequestSpec()
+                .queryParam("executionId", executionId)
+                .when()
+                .get(REST_ZAPI_PATH + "stepResult")
+                .then().statusCode(200)
+                .extract().asString());
+
+        Map<String, JSONObject> stepResultsByStepId = new HashMap<>();
+        for (int i = 0; i < current.length(); i++) {
+            JSONObject stepResult = current.getJSONObject(i);
+            stepResultsByStepId.put(stepResult.optString("stepId"), stepResult);
+        }
+
+        Map<Step, JSONObject> matched = new LinkedHashMap<>();
+        for (Step step : steps) {
+            Object stepId = stepIdsByText.get(normalise(step.text));
+            if (stepId != null && stepResultsByStepId.containsKey(stepId.toString())) {
+                matched.put(step, stepResultsByStepId.get(stepId.toString()));
+            }
+        }
+        if (matched.isEmpty() && current.length() == steps.size()) {
+            for (int i = 0; i < steps.size(); i++) {
+                matched.put(steps.get(i), current.getJSONObject(i));
+            }
+        }
+        if (matched.size() < steps.size()) {
+            logger.debug("{} of {} steps matched a test step of execution {}",
+                    matched.size(), steps.size(), executionId);
+        }
+
+        int updated = 0;
+        for (Map.Entry<Step, JSONObject> match : matched.entrySet()) {
+            Step step = match.getKey();
+            JSONObject stepResult = match.getValue();
+            if (String.valueOf(step.status).equals(stepResult.optString("status"))
+                    && Objects.equals(step.comment, stepResult.optString("comment"))) {
+                continue;
+            }
+            if (updated == MAX_STEP_UPDATES_PER_EXECUTION) {
+                logger.warn("Updated only the first {} changed step results of execution {}",
+                        MAX_STEP_UPDATES_PER_EXECUTION, executionId);
+                break;
+            }
+            JSONObject obj = new JSONObject()
+                    .put("status", String.valueOf(step.status))
+                    .put("comment", step.comment);
+            getJIRARequestSpec()
+                    .contentType("application/json")
+                    .body(obj.toString())
+                    .when()
+                    .put(REST_ZAPI_PATH + "stepResult/" + stepResult.get("id"));
+            updated++;
+        }
+        logger.debug("Updated {} of {} step results of execution {}", updated, steps.size(), executionId);
+    }
+
+    /** @return the ids of the issue's ZAPI test steps by their normalised text */
+    private static Map<String, Object> testStepIds(String issue) {
+        String issueId = getJIRARequestSpec()
+                .queryParam("fields", "id")
+                .get(JIRA_REST_PATH + "issue/" + issue)
+                .then().statusCode(200)
+                .extract().jsonPath().getString("id");
+        String body = getJIRARequestSpec()
+                .get(REST_ZAPI_PATH + "teststep/" + issueId)
+                .then().statusCode(200)
+                .extract().asString();
+        // older ZAPI versions return the steps as an array, newer ones wrap them
+        JSONArray testSteps = body.trim().startsWith("[")
+                ? new JSONArray(body)
+                : new JSONObject(body).optJSONArray("stepBeanCollection");
+
+        Map<String, Object> stepIdsByText = new HashMap<>();
+        for (int i = 0; testSteps != null && i < testSteps.length(); i++) {
+            JSONObject testStep = testSteps.getJSONObject(i);
+            stepIdsByText.putIfAbsent(normalise(testStep.optString("step")), testStep.get("id"));
+        }
+        return stepIdsByText;
+    }
+
+    private static String normalise(String stepText) {
+        return stepText.trim()
+                .replaceFirst("(?i)^(given|when|then|and|but|\\*)\\s+", "")
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,239 @@
+package com.frameworkium.jira.zapi;
+
+import com.frameworkium.jira.JiraConfig;
+import com.frameworkium.jira.properties.JiraProperty;
+import com.frameworkium.jira.sinks.ReportingBudget;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.frameworkium.jira.JiraConfig.REST_ZAPI_PATH;
+import static com.frameworkium.jira.JiraConfig.getJIRARequestSpec;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reports test results to Zephyr according to {@link JiraProperty#ZAPI_REPORTING_MODE}:
+ * <ul>
+ * <li>{@code live} (default) - each result updates its executions immediately</li>
+ * <li>{@code deferred} - the final result per issue is kept in memory and
+ * written by {@link #finish()} with a few bulk calls</li>
+ * <li>{@code spool} - as deferred, but {@link #finish()} writes the results to a file in
+ * {@link JiraProperty#RESULTS_SPOOL_DIR} which is submitted later by {@link #main(String[])}</li>
+ * <li>{@code reconcile} - as deferred, but the current statuses are searched for first and
+ * only executions whose status differs, or results with attachments, are written</li>
+ * </ul>
+ *
+ * <p>ZAPI's bulk status update does not take comments or attachments, so passes without
+ * a comment or attachments are written in bulk, one call per {@value #EXECUTIONS_PER_BULK_UPDATE}
+ * executions, while other results are written individually with their comment.
+ */
+public final class ZapiResults {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int EXECUTIONS_PER_BULK_UPDATE = 500;
+
+    private static final Map<String, JSONObject> results = new ConcurrentHashMap<>();
+    private static final Map<String, JSONArray> steps = new ConcurrentHashMap<>();
+
+    private ZapiResults() {
+        // hide default constructor for this util class
+    }
+
+    public enum Mode {
+        LIVE, DEFERRED, SPOOL, RECONCILE;
+
+        static Mode fromProperty() {
+            return Configured.MODE;
+        }
+
+        private static Mode parse() {
+            if (!JiraProperty.ZAPI_REPORTING_MODE.isSpecified()) {
+                return LIVE;
+            }
+            String mode = JiraProperty.ZAPI_REPORTING_MODE.getValue().trim();
+            for (Mode value : values()) {
+                if (value.name().equalsIgnoreCase(mode)) {
+                    return value;
+                }
+            }
+            logger.warn("Unknown zapiReportingMode '{}', expected one of {}, reporting live",
+                    mode, Arrays.toString(values()));
+            return LIVE;
+        }
+
+        // the property is read once, when first needed
+        private static final class Configured {
+            private static final Mode MODE = parse();
+        }
+    }
+
+    /**
+     * Reports the result of the issue's test, WIP results are ignored unless reporting live.
+     */
+    public static void report(String issue, int status, String comment, String... attachments) {
+        if (Mode.fromProperty() == Mode.LIVE) {
+            ExecutionRegistry.get(issue).update(status, comment, attachments);
+        } else if (status != JiraConfig.ZapiStatus.ZAPI_STATUS_WIP) {
+            // the latest result replaces any earlier one, as it would if reported live
+            results.put(issue, toJson(issue, status, comment, attachments));
+        }
+    }
+
+    /**
+     * Keeps the step results of the issue's test, see {@link StepResults}, to be written
+     * or spooled with its result by {@link #finish()}.
+     */
+    static void deferSteps(String issue, JSONArray stepResults) {
+        steps.put(issue, stepResults);
+    }
+
+    /**
+     * Writes or spools the results, and step results, collected since the last call, if any.
+     * Results are spooled rather than written once the reporting budget is used up.
+     */
+    public static void finish() {
+        if (results.isEmpty() && steps.isEmpty()) {
+            return;
+        }
+        JSONObject payload = new JSONObject().put("results", drain(results));
+        JSONObject stepsByIssue = new JSONObject();
+        for (String issue : new ArrayList<>(steps.keySet())) {
+            JSONArray issueSteps = steps.remove(issue);
+            if (issueSteps != null) {
+                stepsByIssue.put(issue, issueSteps);
+            }
+        }
+        payload.put("steps", stepsByIssue);
+
+        if (Mode.fromProperty() == Mode.SPOOL || ReportingBudget.isExhausted()) {
+            spool(payload);
+        } else {
+            submit(payload);
+        }
+    }
+
+    private static JSONObject toJson(String issue, int status, String comment, String... attachments) {
+        return new JSONObject()
+                .put("issue", issue)
+                .put("status", status)
+                .put("comment", comment)
+                .put("attachments", attachments == null ? new JSONArray() : new JSONArray(attachments));
+    }
+
+    /**
+     * Submits result files written in spool mode, with the same
+     * JIRA and result version properties as the run which wrote them.
+     *
+     * @param args paths of the spooled result files
+     */
+    public static void main(String[] args) throws IOException {
+        for (String file : args) {
+            submit(new JSONObject(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static JSONArray drain(Map<String, JSONObject> toDrain) {
+        JSONArray drained = new JSONArray();
+        for (String issue : new ArrayList<>(toDrain.keySet())) {
+            JSONObject result = toDrain.remove(issue);
+            if (result != null) {
+                drained.put(result);
+            }
+        }
+        return drained;
+    }
+
+    static Path spool(JSONObject payload) {
+        Path spoolDir = Paths.get(JiraProperty.RESULTS_SPOOL_DIR.isSpecified()
+                ? JiraProperty.RESULTS_SPOOL_DIR.getValue()
+                : "target/jira-results");
+        try {
+            Files.createDirectories(spoolDir);
+            Path file = Files.createTempFile(spoolDir, "zapi-results-", ".json");
+            Files.write(file, payload.toString(2).getBytes(StandardCharsets.UTF_8));
+            logger.info("Spooled {} Zephyr results to {}",
+                    payload.getJSONArray("results").length(), file);
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to spool Zephyr results to " + spoolDir, e);
+        }
+    }
+
+    private static void submit(JSONObject payload) {
+        List<JSONObject> toSubmit = new ArrayList<>();
+        payload.getJSONArray("results").forEach(result -> toSubmit.add((JSONObject) result));
+
+        List<String> issues = toSubmit.stream().map(result -> result.getString("issue")).collect(toList());
+        Map<String, Execution> executions = ExecutionRegistry.resolveAll(issues);
+
+        boolean reconcile = Mode.fromProperty() == Mode.RECONCILE;
+        Map<Integer, Integer> currentStatuses = reconcile
+                ? ExecutionRegistry.currentStatuses(issues)
+                : new HashMap<>();
+
+        Map<Integer, List<Integer>> bulkIdsByStatus = new HashMap<>();
+        int unchanged = 0;
+        for (JSONObject result : toSubmit) {
+            Execution execution = executions.get(result.getString("issue"));
+            int status = result.getInt("status");
+            JSONArray attachments = result.getJSONArray("attachments");
+
+            List<Integer> changedIds = execution.getExecutionIds().stream()
+                    .filter(id -> !reconcile || !Objects.equals(currentStatuses.get(id), status))
+                    .collect(toList());
+            if (changedIds.isEmpty() && attachments.length() == 0) {
+                unchanged++;
+            } else if (status == JiraConfig.ZapiStatus.ZAPI_STATUS_PASS
+                    && result.optString("comment").isEmpty() && attachments.length() == 0) {
+                bulkIdsByStatus.computeIfAbsent(status, s -> new ArrayList<>())
+                        .addAll(changedIds);
+            } else {
+                String[] attachmentPaths = attachments.toList().stream()
+                        .map(Object::toString)
+                        .toArray(String[]::new);
+                // with attachments every execution is written, as they cannot be compared
+                execution.update(attachments.length() == 0 ? changedIds : execution.getExecutionIds(),
+                        status, result.optString("comment"), attachmentPaths);
+            }
+        }
+
+        bulkIdsByStatus.forEach(ZapiResults::updateBulkStatus);
+        logger.info("Submitted {} Zephyr results, {} were unchanged", toSubmit.size() - unchanged, unchanged);
+
+        JSONObject stepsByIssue = payload.optJSONObject("steps");
+        if (stepsByIssue != null && stepsByIssue.length() > 0) {
+            Map<String, List<StepResults.Step>> toWrite = new HashMap<>();
+            stepsByIssue.keySet().forEach(issue ->
+                    toWrite.put(issue, StepResults.fromJson(stepsByIssue.getJSONArray(issue))));
+            Map<String, Integer> statusByIssue = new HashMap<>();
+            toSubmit.forEach(result -> statusByIssue.put(result.getString("issue"), result.getInt("status")));
+            StepResults.write(toWrite, statusByIssue);
+        }
+    }
+
+    private static void updateBulkStatus(int status, List<Integer> executionIds) {
+        for (int i = 0; i < executionIds.size(); i += EXECUTIONS_PER_BULK_UPDATE) {
+            List<Integer> chunk = executionIds.subList(
+                    i, Math.min(i + EXECUTIONS_PER_BULK_UPDATE, executionIds.size()));
+            JSONObject obj = new JSONObject()
+                    .put("executions", new JSONArray(chunk))
+                    .put("status", String.valueOf(status));
+
+            getJIRARequestSpec()
+                    .contentType("application/json")
+                    .body(obj.toString())
+                    .when()
+                    .put(REST_ZAPI_PATH + "execution/updateBulkStatus");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.frameworkium.jira.events;
+
+import io.restassured.filter.Filter;
+
+import java.util.Optional;
+
+/**
+ * Java Flight Recorder events for JIRA and ZAPI requests and listener callbacks.
+ *
+ * <p>Events are only created when a recording has them enabled, otherwise
+ * the cost is one check per request or callback.
+ */
+public final class JiraEvents {
+
+    private static final Filter REQUEST_FILTER = new RequestEventFilter();
+
+    private JiraEvents() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return a filter which records an event for each request
+     */
+    public static Optional<Filter> requestFilter() {
+        return Optional.of(REQUEST_FILTER);
+    }
+
+    /**
+     * Starts recording a listener callback, to be closed when the callback returns.
+     *
+     * @param listener the simple name of the listener
+     * @param callback the name of the callback method
+     * @param testName the test or scenario the callback is for, may be null
+     */
+    public static ListenerCallback callback(String listener, String callback, String testName) {
+        ListenerCallbackEvent event = new ListenerCallbackEvent();
+        if (!event.isEnabled()) {
+            return ListenerCallback.NONE;
+        }
+        event.listener = listener;
+        event.callback = callback;
+        event.testName = testName;
+        event.begin();
+        return () -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        };
+    }
+}
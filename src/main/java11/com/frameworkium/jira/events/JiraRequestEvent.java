@@ -0,0 +1,37 @@
+package com.frameworkium.jira.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.frameworkium.jira.Request")
+@Label("JIRA Request")
+@Description("A request to the JIRA or ZAPI REST API")
+@Category({"Frameworkium", "JIRA"})
+@StackTrace(false)
+class JiraRequestEvent extends Event {
+
+    @Label("Operation")
+    @Description("Method and path with issue keys and IDs replaced by placeholders")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Issue Key")
+    String issueKey;
+
+    @Label("Execution ID")
+    long executionId;
+
+    @Label("Status Code")
+    int statusCode;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+}
@@ -0,0 +1,25 @@
+package com.frameworkium.jira.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.frameworkium.jira.ListenerCallback")
+@Label("JIRA Listener Callback")
+@Description("A TestNG or Cucumber listener callback which may report to JIRA")
+@Category({"Frameworkium", "JIRA"})
+@StackTrace(false)
+class ListenerCallbackEvent extends Event {
+
+    @Label("Listener")
+    String listener;
+
+    @Label("Callback")
+    String callback;
+
+    @Label("Test")
+    String testName;
+}
@@ -0,0 +1,73 @@
+package com.frameworkium.jira.events;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.net.URI;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records a {@link JiraRequestEvent} around each request.
+ */
+class RequestEventFilter implements Filter {
+
+    private static final Pattern ISSUE_KEY = Pattern.compile("\\b[A-Z][A-Z0-9_]+-\\d+\\b");
+    private static final Pattern EXECUTION_ID = Pattern.compile("/execution/(\\d+)");
+    private static final Pattern ID = Pattern.compile("/\\d+(?=/|$)");
+
+    @Override
+    public Response filter(
+            FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec,
+            FilterContext ctx) {
+
+        JiraRequestEvent event = new JiraRequestEvent();
+        if (!event.isEnabled()) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+
+        event.begin();
+        Response response = null;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            return response;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                describe(event, requestSpec, response);
+                event.commit();
+            }
+        }
+    }
+
+    private static void describe(
+            JiraRequestEvent event, FilterableRequestSpecification requestSpec, Response response) {
+
+        // the user defined path may still contain {placeholders} for path params
+        String path = URI.create(requestSpec.getURI()).getPath();
+        event.path = path;
+        event.operation = requestSpec.getMethod() + " " + ID.matcher(
+                ISSUE_KEY.matcher(path).replaceAll("{issue}")).replaceAll("/{id}");
+
+        Matcher issueKey = ISSUE_KEY.matcher(path);
+        if (issueKey.find()) {
+            event.issueKey = issueKey.group();
+        }
+        Matcher executionId = EXECUTION_ID.matcher(path);
+        if (executionId.find()) {
+            event.executionId = Long.parseLong(executionId.group(1));
+        }
+
+        if (response != null) {
+            event.statusCode = response.statusCode();
+            // the body has already been read into memory by the time filters see it
+            event.responseBytes = response.asByteArray().length;
+        } else {
+            event.statusCode = -1;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.frameworkium.jira.transport;
+
+import com.frameworkium.jira.concurrent.JiraExecutors;
+import io.restassured.authentication.PreemptiveBasicAuthScheme;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Sends requests with one shared JDK {@link HttpClient}, preferring HTTP/2, in place
+ * of RestAssured's client. Responses are handed back to RestAssured, so callers
+ * extract and validate them as before. Like RestAssured's client configured by
+ * {@code JiraConfig}, it asks for gzip responses and decodes them.
+ *
+ * <p>Multipart and form requests, i.e. attachment uploads, are left to RestAssured.
+ */
+class JdkHttpTransport implements Filter {
+
+    static final JdkHttpTransport INSTANCE = new JdkHttpTransport();
+
+    // set by the HttpClient itself, which rejects them from callers
+    private static final Set<String> RESTRICTED_HEADERS =
+            Set.of("connection", "content-length", "expect", "host", "upgrade");
+    private static final Set<String> DECODED_HEADERS = Set.of("content-encoding", "content-length");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            // matches relaxedHTTPSValidation() of the request spec
+            .sslContext(trustAllContext())
+            .executor(JiraExecutors.background())
+            .build();
+
+    private JdkHttpTransport() {}
+
+    @Override
+    public Response filter(
+            FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec,
+            FilterContext ctx) {
+
+        Object body = requestSpec.getBody();
+        if (!requestSpec.getMultiPartParams().isEmpty()
+                || !requestSpec.getFormParams().isEmpty()
+                || !(body == null || body instanceof String || body instanceof byte[])) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(requestSpec.getURI()))
+                .method(requestSpec.getMethod(), bodyPublisher(body));
+        for (Header header : requestSpec.getHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase())) {
+                request.header(header.getName(), header.getValue());
+            }
+        }
+        if (!requestSpec.getHeaders().hasHeaderWithName("Accept-Encoding")) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        if (requestSpec.getCookies().exist()) {
+            request.header("Cookie", requestSpec.getCookies().asList().stream()
+                    .map(cookie -> cookie.getName() + "=" + cookie.getValue())
+                    .collect(joining("; ")));
+        }
+        if (requestSpec.getAuthenticationScheme() instanceof PreemptiveBasicAuthScheme) {
+            PreemptiveBasicAuthScheme basic = (PreemptiveBasicAuthScheme) requestSpec.getAuthenticationScheme();
+            String credentials = basic.getUserName() + ":" + basic.getPassword();
+            request.header("Authorization", "Basic "
+                    + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+        Object timeout = requestSpec.getConfig().getHttpClientConfig().params().get("http.socket.timeout");
+        if (timeout instanceof Integer) {
+            request.timeout(Duration.ofMillis((Integer) timeout));
+        }
+
+        try {
+            return toResponse(
+                    client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray()),
+                    requestSpec.getConfig());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted sending " + requestSpec.getURI()));
+        }
+    }
+
+    private static HttpRequest.BodyPublisher bodyPublisher(Object body) {
+        if (body instanceof String) {
+            return HttpRequest.BodyPublishers.ofString((String) body);
+        } else if (body instanceof byte[]) {
+            return HttpRequest.BodyPublishers.ofByteArray((byte[]) body);
+        }
+        return HttpRequest.BodyPublishers.noBody();
+    }
+
+    private static Response toResponse(HttpResponse<byte[]> response, RestAssuredConfig config) throws IOException {
+        boolean gzipped = response.headers().firstValue("Content-Encoding")
+                .filter(encoding -> encoding.trim().equalsIgnoreCase("gzip"))
+                .isPresent();
+        List<Header> headers = new ArrayList<>();
+        response.headers().map().forEach((name, values) -> {
+            // the body handed on is decoded, so these no longer describe it
+            if (!gzipped || !DECODED_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> headers.add(new Header(name, value)));
+            }
+        });
+
+        String protocol = response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+        return Responses.of(
+                response.statusCode(),
+                protocol + " " + response.statusCode(),
+                new Headers(headers),
+                response.headers().firstValue("Content-Type").orElse(null),
+                gzipped ? gunzip(response.body()) : response.body(),
+                config);
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        if (body.length == 0) {
+            return body;
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static SSLContext trustAllContext() {
+        TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {}
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {}
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{trustAll}, null);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create the SSL context", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.frameworkium.jira.transport;
+
+import com.frameworkium.jira.properties.JiraProperty;
+import io.restassured.filter.Filter;
+
+import java.util.Optional;
+
+/**
+ * Chooses the HTTP client JIRA and ZAPI requests are sent with, see {@link JiraProperty#HTTP_TRANSPORT}.
+ *
+ * <p>By default requests are sent by RestAssured's Apache HttpClient, with one HTTP/1.1
+ * connection per request in flight. The {@code jdk} transport sends them with the JDK
+ * {@link java.net.http.HttpClient} instead, which multiplexes concurrent requests over
+ * a few HTTP/2 connections when the server supports it.
+ */
+public final class JiraTransport {
+
+    private JiraTransport() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return a filter which sends requests itself, rather than RestAssured, if any
+     */
+    public static Optional<Filter> filter() {
+        return isJdkTransport()
+                ? Optional.of(JdkHttpTransport.INSTANCE)
+                : Optional.empty();
+    }
+
+    static boolean isJdkTransport() {
+        return JiraProperty.HTTP_TRANSPORT.isSpecified()
+                && "jdk".equalsIgnoreCase(JiraProperty.HTTP_TRANSPORT.getValue().trim());
+    }
+}
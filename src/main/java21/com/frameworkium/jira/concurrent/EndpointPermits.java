@@ -0,0 +1,146 @@
+package com.frameworkium.jira.concurrent;
+
+import com.frameworkium.jira.JiraConfig;
+import com.frameworkium.jira.properties.JiraProperty;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds the JIRA and ZAPI requests in flight per class of endpoint.
+ *
+ * <p>On Java 21+ the library's work runs on virtual threads, see {@link JiraExecutors},
+ * so there is no pool size to limit how hard JIRA is hit. Instead each request holds a
+ * permit of its endpoint class while it is sent. The permits per class can be set with
+ * {@link JiraProperty#ENDPOINT_CONCURRENCY}, e.g. {@code search=8,attachment=4}.
+ */
+public final class EndpointPermits {
+
+    /** The classes of endpoint which are bounded separately. */
+    enum EndpointClass {
+        /** JQL and ZQL searches, which are the most expensive for the server */
+        SEARCH,
+        /** attachment uploads */
+        ATTACHMENT,
+        /** other ZAPI requests, i.e. executions, step results and cycles */
+        ZAPI,
+        /** other JIRA requests, i.e. issues, comments and projects */
+        JIRA;
+
+        static Optional<EndpointClass> named(String name) {
+            return Arrays.stream(values())
+                    .filter(endpointClass -> endpointClass.name().equalsIgnoreCase(name.trim()))
+                    .findFirst();
+        }
+
+        static EndpointClass of(String path) {
+            if (path.contains("/attachment")) {
+                return ATTACHMENT;
+            } else if (path.contains("/search") || path.contains("/zql/")) {
+                return SEARCH;
+            } else if (path.startsWith(JiraConfig.REST_ZAPI_PATH)) {
+                return ZAPI;
+            }
+            return JIRA;
+        }
+
+        int defaultPermits() {
+            switch (this) {
+                case SEARCH:
+                    return JiraProperty.SEARCH_CONCURRENCY.getIntValue(4);
+                case ATTACHMENT:
+                    return JiraProperty.UPLOAD_CONCURRENCY.getIntValue(2);
+                default:
+                    return 64;
+            }
+        }
+    }
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final Filter INSTANCE = new PermitFilter(permits());
+
+    private EndpointPermits() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return a filter which holds a permit of the request's endpoint class while it is sent
+     */
+    public static Optional<Filter> filter() {
+        return Optional.of(INSTANCE);
+    }
+
+    private static Map<EndpointClass, Semaphore> permits() {
+        Map<EndpointClass, Integer> sizes = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            sizes.put(endpointClass, endpointClass.defaultPermits());
+        }
+        if (JiraProperty.ENDPOINT_CONCURRENCY.isSpecified()) {
+            for (String classSize : JiraProperty.ENDPOINT_CONCURRENCY.getValue().split(",")) {
+                if (StringUtils.isBlank(classSize)) {
+                    continue;
+                }
+                String[] nameAndSize = classSize.split("=", 2);
+                Optional<EndpointClass> endpointClass = EndpointClass.named(nameAndSize[0]);
+                Optional<Integer> size = nameAndSize.length == 2 ? size(nameAndSize[1]) : Optional.empty();
+                if (endpointClass.isPresent() && size.isPresent()) {
+                    sizes.put(endpointClass.get(), size.get());
+                } else {
+                    logger.warn("Ignoring '{}' in jiraEndpointConcurrency, expected <class>=<permits> for one of {}",
+                            classSize.trim(), Arrays.toString(EndpointClass.values()));
+                }
+            }
+        }
+
+        Map<EndpointClass, Semaphore> permits = new EnumMap<>(EndpointClass.class);
+        sizes.forEach((endpointClass, size) -> permits.put(endpointClass, new Semaphore(size)));
+        return permits;
+    }
+
+    private static Optional<Integer> size(String permits) {
+        try {
+            return Optional.of(Math.max(1, Integer.parseInt(permits.trim())));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static final class PermitFilter implements Filter {
+
+        private final Map<EndpointClass, Semaphore> permits;
+
+        private PermitFilter(Map<EndpointClass, Semaphore> permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public Response filter(
+                FilterableRequestSpecification requestSpec,
+                FilterableResponseSpecification responseSpec,
+                FilterContext ctx) {
+
+            // the user defined path may still contain {placeholders} for path params
+            Semaphore semaphore = permits.get(
+                    EndpointClass.of(URI.create(requestSpec.getURI()).getPath()));
+            semaphore.acquireUninterruptibly();
+            try {
+                return ctx.next(requestSpec, responseSpec);
+            } finally {
+                semaphore.release();
+            }
+        }
+    }
+}
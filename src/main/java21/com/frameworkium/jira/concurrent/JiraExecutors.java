@@ -0,0 +1,41 @@
+package com.frameworkium.jira.concurrent;
+
+import com.frameworkium.jira.properties.JiraProperty;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for work the library runs off the test threads, e.g. prefetching.
+ *
+ * <p>On Java 21+ every task runs on its own virtual thread, so blocking JIRA
+ * requests in flight no longer each hold an OS thread. How many requests are sent
+ * at once is bounded per endpoint class by {@link EndpointPermits} instead.
+ */
+public final class JiraExecutors {
+
+    private static final ExecutorService background = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("jira-background-", 1).factory());
+
+    private static final ExecutorService uploads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("jira-upload-", 1).factory());
+
+    private JiraExecutors() {
+        // hide default constructor for this util class
+    }
+
+    /**
+     * @return an executor which runs each task on a new virtual thread
+     */
+    public static ExecutorService background() {
+        return background;
+    }
+
+    /**
+     * @return an executor which runs each upload on a new virtual thread, at most
+     * {@link JiraProperty#UPLOAD_CONCURRENCY} are sent at once by default, see {@link EndpointPermits}
+     */
+    public static ExecutorService uploads() {
+        return uploads;
+    }
+}
@@ -2,7 +2,7 @@ import cucumber.api.CucumberOptions;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
-import cucumber.api.testng.AbstractTestNGCucumberTests;
+import com.frameworkium.jira.listeners.JqlFilteredCucumberTests;
 
 @Test
 @CucumberOptions(
@@ -12,7 +12,7 @@ import cucumber.api.testng.AbstractTestNGCucumberTests;
         glue = {"glue"},
         tags = {"@all", "~@bug"})
 //        tags = "@bug")
-public class Runner extends AbstractTestNGCucumberTests {
+public class Runner extends JqlFilteredCucumberTests {
 
 }
 